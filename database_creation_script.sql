@@ -9,11 +9,14 @@ DROP DATABASE IF EXISTS microfinance_scoring;
 CREATE DATABASE microfinance_scoring CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
 USE microfinance_scoring;
 
+-- Les identifiants sont des UUID stockés en BINARY(16) (UUID v7 ordonnés, générés par l'application)
+-- Bases existantes en VARCHAR(36): voir database_migration_uuid_binary.sql
+
 -- ===============================================
 -- TABLE PRINCIPALE: PERSONNES
 -- ===============================================
 CREATE TABLE personnes (
-    id VARCHAR(36) PRIMARY KEY,
+    id BINARY(16) PRIMARY KEY,
     nom VARCHAR(100) NOT NULL,
     prenom VARCHAR(100) NOT NULL,
     date_naissance DATE NOT NULL,
@@ -37,7 +40,7 @@ CREATE TABLE personnes (
 -- TABLE: EMPLOYES (Hérite de PERSONNES)
 -- ===============================================
 CREATE TABLE employes (
-    personne_id VARCHAR(36) PRIMARY KEY,
+    personne_id BINARY(16) PRIMARY KEY,
     salaire DECIMAL(10,2) NOT NULL,
     anciennete INT NOT NULL COMMENT 'Ancienneté en mois',
     poste VARCHAR(100) NOT NULL,
@@ -55,7 +58,7 @@ CREATE TABLE employes (
 -- TABLE: PROFESSIONNELS (Hérite de PERSONNES)
 -- ===============================================
 CREATE TABLE professionnels (
-    personne_id VARCHAR(36) PRIMARY KEY,
+    personne_id BINARY(16) PRIMARY KEY,
     revenu DECIMAL(10,2) NOT NULL,
     immatriculation_fiscale VARCHAR(50),
     secteur_activite ENUM('AGRICULTURE', 'ARTISANAT', 'COMMERCE', 'SERVICE', 'INDUSTRIE', 'TRANSPORT', 'SANTE', 'EDUCATION', 'TECHNOLOGIE', 'AUTRE') NOT NULL,
@@ -71,8 +74,8 @@ CREATE TABLE professionnels (
 -- TABLE: CREDITS
 -- ===============================================
 CREATE TABLE credits (
-    id VARCHAR(36) PRIMARY KEY,
-    client_id VARCHAR(36) NOT NULL,
+    id BINARY(16) PRIMARY KEY,
+    client_id BINARY(16) NOT NULL,
     montant_demande DECIMAL(10,2) NOT NULL,
     montant_octroye DECIMAL(10,2),
     duree_mois INT NOT NULL,
@@ -100,8 +103,8 @@ CREATE TABLE credits (
 -- TABLE: ECHEANCES
 -- ===============================================
 CREATE TABLE echeances (
-    id VARCHAR(36) PRIMARY KEY,
-    credit_id VARCHAR(36) NOT NULL,
+    id BINARY(16) PRIMARY KEY,
+    credit_id BINARY(16) NOT NULL,
     numero_echeance INT NOT NULL,
     date_echeance DATE NOT NULL,
     montant_echeance DECIMAL(10,2) NOT NULL,
@@ -122,12 +125,29 @@ CREATE TABLE echeances (
     UNIQUE KEY unique_credit_numero (credit_id, numero_echeance)
 );
 
+-- ===============================================
+-- TABLE: PLANS DE REMBOURSEMENT (échéanciers virtuels)
+-- ===============================================
+-- Mode microfinance.echeances.stockage=VIRTUEL: seuls ces paramètres sont stockés;
+-- l'échéancier théorique est régénéré par l'application et la table echeances ne
+-- contient plus que les échéances payées, en retard ou modifiées.
+CREATE TABLE plans_remboursement (
+    credit_id BINARY(16) PRIMARY KEY,
+    montant DECIMAL(10,2) NOT NULL,
+    taux_interet DECIMAL(5,2) NOT NULL,
+    duree_mois INT NOT NULL,
+    date_debut DATE NOT NULL,
+    date_creation TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    
+    FOREIGN KEY (credit_id) REFERENCES credits(id) ON DELETE CASCADE
+);
+
 -- ===============================================
 -- TABLE: INCIDENTS
 -- ===============================================
 CREATE TABLE incidents (
-    id VARCHAR(36) PRIMARY KEY,
-    echeance_id VARCHAR(36) NOT NULL,
+    id BINARY(16) PRIMARY KEY,
+    echeance_id BINARY(16) NOT NULL,
     date_incident DATE NOT NULL,
     type_incident ENUM('RETARD_PAIEMENT', 'PAIEMENT_PARTIEL', 'CHEQUE_REJETE', 'DEFAUT_PAIEMENT', 'FRAUDE', 'AUTRE') NOT NULL,
     score_impact INT NOT NULL COMMENT 'Impact sur le score (-50 à -5)',
@@ -147,15 +167,15 @@ CREATE TABLE incidents (
 -- TABLE: HISTORIQUE_SCORES
 -- ===============================================
 CREATE TABLE historique_scores (
-    id VARCHAR(36) PRIMARY KEY,
-    client_id VARCHAR(36) NOT NULL,
+    id BINARY(16) PRIMARY KEY,
+    client_id BINARY(16) NOT NULL,
     ancien_score INT NOT NULL,
     nouveau_score INT NOT NULL,
     variation INT GENERATED ALWAYS AS (nouveau_score - ancien_score) STORED,
     motif VARCHAR(200) NOT NULL,
     date_modification TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    credit_id VARCHAR(36) NULL,
-    incident_id VARCHAR(36) NULL,
+    credit_id BINARY(16) NULL,
+    incident_id BINARY(16) NULL,
     
     FOREIGN KEY (client_id) REFERENCES personnes(id) ON DELETE CASCADE,
     FOREIGN KEY (credit_id) REFERENCES credits(id) ON DELETE SET NULL,
@@ -262,6 +282,8 @@ FROM credits
 GROUP BY type_credit, decision;
 
 -- Vue: Performance des remboursements
+-- Ne lit que la table echeances: exacte seulement pour les échéanciers stockés en mode COMPLET
+-- (en mode VIRTUEL, les échéances à venir ou impayées n'ont pas de ligne)
 CREATE VIEW v_performance_remboursements AS
 SELECT 
     c.id as credit_id,
@@ -289,7 +311,7 @@ GROUP BY c.id, c.client_id, p.nom, p.prenom, c.montant_octroye;
 DELIMITER //
 
 -- Procédure: Calculer le score d'un client
-CREATE PROCEDURE sp_calculer_score_client(IN client_id VARCHAR(36), OUT nouveau_score INT)
+CREATE PROCEDURE sp_calculer_score_client(IN client_id BINARY(16), OUT nouveau_score INT)
 BEGIN
     DECLARE score_stabilite INT DEFAULT 0;
     DECLARE score_financier INT DEFAULT 0;
@@ -381,7 +403,7 @@ BEGIN
 END //
 
 -- Procédure: Génération des échéances pour un crédit
-CREATE PROCEDURE sp_generer_echeances(IN credit_id VARCHAR(36))
+CREATE PROCEDURE sp_generer_echeances(IN credit_id BINARY(16))
 BEGIN
     DECLARE montant_credit DECIMAL(10,2);
     DECLARE duree_mois INT;
@@ -418,7 +440,7 @@ BEGIN
         END IF;
         
         INSERT INTO echeances (id, credit_id, numero_echeance, date_echeance, montant_echeance, montant_capital, montant_interet)
-        VALUES (UUID(), credit_id, i, date_echeance, montant_mensuel, montant_capital, montant_interet);
+        VALUES (UUID_TO_BIN(UUID()), credit_id, i, date_echeance, montant_mensuel, montant_capital, montant_interet);
         
         SET capital_restant = capital_restant - montant_capital;
         SET i = i + 1;
@@ -439,7 +461,7 @@ CREATE TRIGGER tr_incident_score_update
 AFTER INSERT ON incidents
 FOR EACH ROW
 BEGIN
-    DECLARE client_id VARCHAR(36);
+    DECLARE client_id BINARY(16);
     DECLARE nouveau_score INT;
     
     -- Récupérer l'ID du client
@@ -453,7 +475,7 @@ BEGIN
     
     -- Enregistrer dans l'historique
     INSERT INTO historique_scores (id, client_id, ancien_score, nouveau_score, motif, incident_id)
-    SELECT UUID(), client_id, score, nouveau_score, CONCAT('Incident: ', NEW.type_incident), NEW.id
+    SELECT UUID_TO_BIN(UUID()), client_id, score, nouveau_score, CONCAT('Incident: ', NEW.type_incident), NEW.id
     FROM personnes WHERE id = client_id;
     
 END //
@@ -492,15 +514,19 @@ CREATE INDEX idx_echeances_credit_statut ON echeances(credit_id, statut_paiement
 CREATE INDEX idx_incidents_date_type ON incidents(date_incident, type_incident);
 CREATE INDEX idx_personnes_score_type ON personnes(score DESC, type_client);
 
+-- Index de pagination keyset (filtre, clé de tri, id)
+CREATE INDEX idx_incidents_type_date_id ON incidents(type_incident, date_incident, id);
+CREATE INDEX idx_professionnels_secteur_revenu ON professionnels(secteur_activite, revenu, personne_id);
+
 -- ===============================================
 -- DONNÉES DE TEST (OPTIONNEL)
 -- ===============================================
 
 -- Quelques clients de test
 INSERT INTO personnes (id, nom, prenom, date_naissance, ville, nombre_enfants, situation_familiale, score, type_client) VALUES
-(UUID(), 'ALAMI', 'Ahmed', '1985-03-15', 'Casablanca', 2, 'MARIE', 75, 'EMPLOYE'),
-(UUID(), 'BENALI', 'Fatima', '1990-07-22', 'Rabat', 1, 'MARIE', 82, 'PROFESSIONNEL'),
-(UUID(), 'CHERKAOUI', 'Mohamed', '1988-11-08', 'Fès', 0, 'CELIBATAIRE', 68, 'EMPLOYE');
+(UUID_TO_BIN(UUID()), 'ALAMI', 'Ahmed', '1985-03-15', 'Casablanca', 2, 'MARIE', 75, 'EMPLOYE'),
+(UUID_TO_BIN(UUID()), 'BENALI', 'Fatima', '1990-07-22', 'Rabat', 1, 'MARIE', 82, 'PROFESSIONNEL'),
+(UUID_TO_BIN(UUID()), 'CHERKAOUI', 'Mohamed', '1988-11-08', 'Fès', 0, 'CELIBATAIRE', 68, 'EMPLOYE');
 
 -- ===============================================
 -- FIN DU SCRIPT
@@ -0,0 +1,254 @@
+-- ===============================================
+-- MIGRATION: IDENTIFIANTS VARCHAR(36) -> BINARY(16)
+-- Base de données: microfinance_scoring (MySQL 8+)
+-- À exécuter une fois, application arrêtée, sur une base créée
+-- avec l'ancienne version de database_creation_script.sql
+-- ===============================================
+
+USE microfinance_scoring;
+
+-- 1. Supprimer les triggers et procédures qui manipulent des VARCHAR(36)
+DROP TRIGGER IF EXISTS tr_incident_score_update;
+DROP PROCEDURE IF EXISTS sp_calculer_score_client;
+DROP PROCEDURE IF EXISTS sp_generer_echeances;
+
+-- 2. Supprimer les clés étrangères (noms générés par MySQL)
+ALTER TABLE employes DROP FOREIGN KEY employes_ibfk_1;
+ALTER TABLE professionnels DROP FOREIGN KEY professionnels_ibfk_1;
+ALTER TABLE credits DROP FOREIGN KEY credits_ibfk_1;
+ALTER TABLE echeances DROP FOREIGN KEY echeances_ibfk_1;
+ALTER TABLE incidents DROP FOREIGN KEY incidents_ibfk_1;
+ALTER TABLE historique_scores DROP FOREIGN KEY historique_scores_ibfk_1;
+ALTER TABLE historique_scores DROP FOREIGN KEY historique_scores_ibfk_2;
+ALTER TABLE historique_scores DROP FOREIGN KEY historique_scores_ibfk_3;
+
+-- 3. Convertir les valeurs texte en binaire sur place
+--    UUID_TO_BIN sans permutation: l'application lit les 16 octets dans l'ordre canonique
+--    Les colonnes passent d'abord en VARBINARY pour accueillir les octets bruts
+ALTER TABLE personnes MODIFY id VARBINARY(36) NOT NULL;
+UPDATE personnes SET id = UUID_TO_BIN(id);
+ALTER TABLE personnes MODIFY id BINARY(16) NOT NULL;
+
+ALTER TABLE employes MODIFY personne_id VARBINARY(36) NOT NULL;
+UPDATE employes SET personne_id = UUID_TO_BIN(personne_id);
+ALTER TABLE employes MODIFY personne_id BINARY(16) NOT NULL;
+
+ALTER TABLE professionnels MODIFY personne_id VARBINARY(36) NOT NULL;
+UPDATE professionnels SET personne_id = UUID_TO_BIN(personne_id);
+ALTER TABLE professionnels MODIFY personne_id BINARY(16) NOT NULL;
+
+ALTER TABLE credits MODIFY id VARBINARY(36) NOT NULL, MODIFY client_id VARBINARY(36) NOT NULL;
+UPDATE credits SET id = UUID_TO_BIN(id), client_id = UUID_TO_BIN(client_id);
+ALTER TABLE credits MODIFY id BINARY(16) NOT NULL, MODIFY client_id BINARY(16) NOT NULL;
+
+ALTER TABLE echeances MODIFY id VARBINARY(36) NOT NULL, MODIFY credit_id VARBINARY(36) NOT NULL;
+UPDATE echeances SET id = UUID_TO_BIN(id), credit_id = UUID_TO_BIN(credit_id);
+ALTER TABLE echeances MODIFY id BINARY(16) NOT NULL, MODIFY credit_id BINARY(16) NOT NULL;
+
+ALTER TABLE incidents MODIFY id VARBINARY(36) NOT NULL, MODIFY echeance_id VARBINARY(36) NOT NULL;
+UPDATE incidents SET id = UUID_TO_BIN(id), echeance_id = UUID_TO_BIN(echeance_id);
+ALTER TABLE incidents MODIFY id BINARY(16) NOT NULL, MODIFY echeance_id BINARY(16) NOT NULL;
+
+ALTER TABLE historique_scores
+    MODIFY id VARBINARY(36) NOT NULL,
+    MODIFY client_id VARBINARY(36) NOT NULL,
+    MODIFY credit_id VARBINARY(36) NULL,
+    MODIFY incident_id VARBINARY(36) NULL;
+UPDATE historique_scores SET
+    id = UUID_TO_BIN(id),
+    client_id = UUID_TO_BIN(client_id),
+    credit_id = IF(credit_id IS NULL, NULL, UUID_TO_BIN(credit_id)),
+    incident_id = IF(incident_id IS NULL, NULL, UUID_TO_BIN(incident_id));
+ALTER TABLE historique_scores
+    MODIFY id BINARY(16) NOT NULL,
+    MODIFY client_id BINARY(16) NOT NULL,
+    MODIFY credit_id BINARY(16) NULL,
+    MODIFY incident_id BINARY(16) NULL;
+
+-- 4. Recréer les clés étrangères
+ALTER TABLE employes ADD FOREIGN KEY (personne_id) REFERENCES personnes(id) ON DELETE CASCADE;
+ALTER TABLE professionnels ADD FOREIGN KEY (personne_id) REFERENCES personnes(id) ON DELETE CASCADE;
+ALTER TABLE credits ADD FOREIGN KEY (client_id) REFERENCES personnes(id) ON DELETE CASCADE;
+ALTER TABLE echeances ADD FOREIGN KEY (credit_id) REFERENCES credits(id) ON DELETE CASCADE;
+ALTER TABLE incidents ADD FOREIGN KEY (echeance_id) REFERENCES echeances(id) ON DELETE CASCADE;
+ALTER TABLE historique_scores ADD FOREIGN KEY (client_id) REFERENCES personnes(id) ON DELETE CASCADE;
+ALTER TABLE historique_scores ADD FOREIGN KEY (credit_id) REFERENCES credits(id) ON DELETE SET NULL;
+ALTER TABLE historique_scores ADD FOREIGN KEY (incident_id) REFERENCES incidents(id) ON DELETE SET NULL;
+
+-- 5. Recréer les procédures stockées et le trigger supprimés à l'étape 1, paramètres en BINARY(16)
+--    (copie des sections "PROCÉDURES STOCKÉES UTILES" et "TRIGGERS" de database_creation_script.sql,
+--    à modifier aux deux endroits). tr_echeance_retard_update ne manipule pas d'identifiant: conservé.
+DELIMITER //
+
+-- Procédure: Calculer le score d'un client
+CREATE PROCEDURE sp_calculer_score_client(IN client_id BINARY(16), OUT nouveau_score INT)
+BEGIN
+    DECLARE score_stabilite INT DEFAULT 0;
+    DECLARE score_financier INT DEFAULT 0;
+    DECLARE score_historique INT DEFAULT 0;
+    DECLARE score_relation INT DEFAULT 0;
+    DECLARE score_complementaire INT DEFAULT 0;
+    
+    -- Calculer score de stabilité (exemple simplifié)
+    SELECT CASE 
+        WHEN p.type_client = 'EMPLOYE' THEN
+            CASE 
+                WHEN e.anciennete >= 24 AND e.type_contrat = 'CDI' THEN 25
+                WHEN e.anciennete >= 12 AND e.type_contrat = 'CDI' THEN 20
+                WHEN e.anciennete >= 6 THEN 15
+                ELSE 10
+            END
+        ELSE
+            CASE 
+                WHEN pr.immatriculation_fiscale IS NOT NULL AND pr.revenu >= 5000 THEN 20
+                WHEN pr.revenu >= 3000 THEN 15
+                ELSE 10
+            END
+    END INTO score_stabilite
+    FROM personnes p
+    LEFT JOIN employes e ON p.id = e.personne_id
+    LEFT JOIN professionnels pr ON p.id = pr.personne_id
+    WHERE p.id = client_id;
+    
+    -- Score financier basé sur les revenus
+    SELECT CASE 
+        WHEN p.type_client = 'EMPLOYE' THEN
+            CASE 
+                WHEN e.salaire >= 8000 THEN 30
+                WHEN e.salaire >= 5000 THEN 25
+                WHEN e.salaire >= 3000 THEN 20
+                ELSE 15
+            END
+        ELSE
+            CASE 
+                WHEN pr.revenu >= 10000 THEN 30
+                WHEN pr.revenu >= 6000 THEN 25
+                WHEN pr.revenu >= 3000 THEN 20
+                ELSE 15
+            END
+    END INTO score_financier
+    FROM personnes p
+    LEFT JOIN employes e ON p.id = e.personne_id
+    LEFT JOIN professionnels pr ON p.id = pr.personne_id
+    WHERE p.id = client_id;
+    
+    -- Score historique (basé sur les incidents)
+    SELECT CASE 
+        WHEN COUNT(i.id) = 0 THEN 20
+        WHEN COUNT(i.id) <= 2 THEN 15
+        WHEN COUNT(i.id) <= 5 THEN 10
+        ELSE 5
+    END INTO score_historique
+    FROM personnes p
+    LEFT JOIN credits c ON p.id = c.client_id
+    LEFT JOIN echeances e ON c.id = e.credit_id
+    LEFT JOIN incidents i ON e.id = i.echeance_id
+    WHERE p.id = client_id AND i.date_incident >= DATE_SUB(CURDATE(), INTERVAL 2 YEAR);
+    
+    -- Score relation (ancienneté client)
+    SELECT CASE 
+        WHEN DATEDIFF(CURDATE(), p.created_at) >= 730 THEN 15
+        WHEN DATEDIFF(CURDATE(), p.created_at) >= 365 THEN 12
+        WHEN DATEDIFF(CURDATE(), p.created_at) >= 180 THEN 8
+        ELSE 5
+    END INTO score_relation
+    FROM personnes p
+    WHERE p.id = client_id;
+    
+    -- Score complémentaire (situation familiale, enfants)
+    SELECT CASE 
+        WHEN p.situation_familiale = 'MARIE' AND p.nombre_enfants BETWEEN 1 AND 3 THEN 10
+        WHEN p.situation_familiale = 'MARIE' THEN 8
+        WHEN p.nombre_enfants <= 2 THEN 6
+        ELSE 4
+    END INTO score_complementaire
+    FROM personnes p
+    WHERE p.id = client_id;
+    
+    SET nouveau_score = score_stabilite + score_financier + score_historique + score_relation + score_complementaire;
+    
+    -- Mettre à jour le score dans la table
+    UPDATE personnes SET score = nouveau_score WHERE id = client_id;
+    
+END //
+
+-- Procédure: Génération des échéances pour un crédit
+CREATE PROCEDURE sp_generer_echeances(IN credit_id BINARY(16))
+BEGIN
+    DECLARE montant_credit DECIMAL(10,2);
+    DECLARE duree_mois INT;
+    DECLARE taux_mensuel DECIMAL(10,6);
+    DECLARE montant_mensuel DECIMAL(10,2);
+    DECLARE date_debut DATE;
+    DECLARE i INT DEFAULT 1;
+    DECLARE date_echeance DATE;
+    DECLARE montant_interet DECIMAL(10,2);
+    DECLARE montant_capital DECIMAL(10,2);
+    DECLARE capital_restant DECIMAL(10,2);
+    
+    -- Récupérer les informations du crédit
+    SELECT montant_octroye, duree_mois, taux_interet/100/12, date_debut
+    INTO montant_credit, duree_mois, taux_mensuel, date_debut
+    FROM credits WHERE id = credit_id;
+    
+    SET capital_restant = montant_credit;
+    SET montant_mensuel = montant_credit * (taux_mensuel * POWER(1 + taux_mensuel, duree_mois)) / (POWER(1 + taux_mensuel, duree_mois) - 1);
+    
+    -- Supprimer les anciennes échéances si elles existent
+    DELETE FROM echeances WHERE credit_id = credit_id;
+    
+    -- Générer les échéances
+    WHILE i <= duree_mois DO
+        SET date_echeance = DATE_ADD(date_debut, INTERVAL i MONTH);
+        SET montant_interet = capital_restant * taux_mensuel;
+        SET montant_capital = montant_mensuel - montant_interet;
+        
+        -- Ajustement pour la dernière échéance
+        IF i = duree_mois THEN
+            SET montant_capital = capital_restant;
+            SET montant_mensuel = montant_capital + montant_interet;
+        END IF;
+        
+        INSERT INTO echeances (id, credit_id, numero_echeance, date_echeance, montant_echeance, montant_capital, montant_interet)
+        VALUES (UUID_TO_BIN(UUID()), credit_id, i, date_echeance, montant_mensuel, montant_capital, montant_interet);
+        
+        SET capital_restant = capital_restant - montant_capital;
+        SET i = i + 1;
+    END WHILE;
+    
+END //
+
+DELIMITER ;
+
+DELIMITER //
+
+-- Trigger: Mise à jour automatique du score après incident
+CREATE TRIGGER tr_incident_score_update
+AFTER INSERT ON incidents
+FOR EACH ROW
+BEGIN
+    DECLARE client_id BINARY(16);
+    DECLARE nouveau_score INT;
+    
+    -- Récupérer l'ID du client
+    SELECT c.client_id INTO client_id
+    FROM echeances e
+    JOIN credits c ON e.credit_id = c.id
+    WHERE e.id = NEW.echeance_id;
+    
+    -- Calculer le nouveau score
+    CALL sp_calculer_score_client(client_id, nouveau_score);
+    
+    -- Enregistrer dans l'historique
+    INSERT INTO historique_scores (id, client_id, ancien_score, nouveau_score, motif, incident_id)
+    SELECT UUID_TO_BIN(UUID()), client_id, score, nouveau_score, CONCAT('Incident: ', NEW.type_incident), NEW.id
+    FROM personnes WHERE id = client_id;
+    
+END //
+
+DELIMITER ;
+
+-- 6. Optionnel: reconstruire les index après conversion
+OPTIMIZE TABLE personnes, employes, professionnels, credits, echeances, incidents, historique_scores;
+
+-- Jusqu'à l'exécution de ce script, lancer l'application avec -Dmicrofinance.db.uuidStorage=TEXTE
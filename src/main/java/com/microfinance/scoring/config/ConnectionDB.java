@@ -1,38 +1,72 @@
 package com.microfinance.scoring.config;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class ConnectionDB {
-    private String url = "jdbc:mysql://localhost:3306/microfinance_scoring";
-    private String usertName = "root";
-    private String pass = "";
+    // useServerPrepStmts: préparation côté serveur, réutilisée grâce au cache de statements du pool
+    private String url = System.getProperty("microfinance.db.url", "jdbc:mysql://localhost:3306/microfinance_scoring?rewriteBatchedStatements=true&useCursorFetch=true&useServerPrepStmts="
+            + Boolean.parseBoolean(System.getProperty("microfinance.db.serverPrepStmts", "true")));
+    private String usertName = System.getProperty("microfinance.db.user", "root");
+    private String pass = System.getProperty("microfinance.db.password", "");
+
+    // Paramètres du pool (surchargeables par propriétés système)
+    private int tailleMinPool = Integer.getInteger("microfinance.pool.min", 2);
+    private int tailleMaxPool = Integer.getInteger("microfinance.pool.max", Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+    private long delaiAcquisitionMs = Long.getLong("microfinance.pool.acquisitionTimeoutMs", 5_000L);
+    private long dureeInactiviteMaxMs = Long.getLong("microfinance.pool.idleTimeoutMs", 300_000L);
+    private long seuilFuiteMs = Long.getLong("microfinance.pool.leakThresholdMs", 30_000L);
+    private int delaiValidationSec = Integer.getInteger("microfinance.pool.validationTimeoutSec", 2);
+    private int tailleCacheStatements = Integer.getInteger("microfinance.pool.statementCacheSize", 64);
+    private boolean traceEmprunts = Boolean.getBoolean("microfinance.pool.leakTrace");
+    private long validationApresInactiviteMs = Long.getLong("microfinance.pool.validateAfterIdleMs", 5_000L);
 
     public static ConnectionDB instance=null;
-    private  Connection connection;
+    private final ConnectionPool pool;
 
     private ConnectionDB()
     {
+        pool = new ConnectionPool(url, usertName, pass, tailleMinPool, tailleMaxPool,
+                delaiAcquisitionMs, dureeInactiviteMaxMs, seuilFuiteMs, delaiValidationSec, tailleCacheStatements,
+                traceEmprunts, validationApresInactiviteMs);
         try{
-            connection= DriverManager.getConnection(url,usertName,pass);
+            pool.initialiser();
             System.out.println("la connectioon est reussi");
         }catch (SQLException e)
         {
+            pool.fermer();
             throw new RuntimeException(e);
         }
     }
 
 
-    public static  ConnectionDB getInstance()
+    public static synchronized ConnectionDB getInstance()
     {
         if(instance==null){
             instance = new ConnectionDB();
         }
         return  instance;
     }
-    
-    public Connection getConnection() {
-        return connection;
+
+    /**
+     * Emprunter une connexion au pool; la fermer (try-with-resources) la rend au pool.
+     * Dans une UnitOfWork ouverte, renvoie la connexion de la transaction en cours.
+     * @return Connexion empruntée
+     * @throws SQLException si aucune connexion n'est disponible dans le délai
+     */
+    public Connection getConnection() throws SQLException {
+        Connection transactionnelle = UnitOfWork.connexionCourante();
+        if (transactionnelle != null) {
+            return transactionnelle;
+        }
+        return pool.emprunter();
+    }
+
+    public int getTailleMaxPool() {
+        return tailleMaxPool;
+    }
+
+    public ConnectionPool.StatistiquesPool getStatistiquesPool() {
+        return pool.getStatistiques();
     }
-}
\ No newline at end of file
+}
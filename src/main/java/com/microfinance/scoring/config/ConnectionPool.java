@@ -0,0 +1,413 @@
+package com.microfinance.scoring.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de connexions JDBC borné
+ * Les connexions empruntées sont des proxies: close() rend la connexion au pool au lieu de la fermer
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String utilisateur;
+    private final String motDePasse;
+
+    private final int tailleMin;
+    private final int tailleMax;
+    private final long delaiAcquisitionMs;
+    private final long dureeInactiviteMaxMs;
+    private final long seuilFuiteMs;
+    private final int delaiValidationSec;
+    private final int tailleCacheStatements;
+    // Trace de pile capturée à chaque emprunt: coûteuse, réservée au diagnostic des fuites
+    private final boolean traceEmprunts;
+    // Une connexion rendue plus récemment que ce délai est prêtée sans isValid()
+    private final long validationApresInactiviteMs;
+
+    private final LinkedBlockingDeque<ConnexionPhysique> inactives = new LinkedBlockingDeque<>();
+    private final Map<ConnexionPhysique, Emprunt> empruntees = new ConcurrentHashMap<>();
+    private final Semaphore permis;
+    private final AtomicInteger totalConnexions = new AtomicInteger();
+    private final AtomicInteger attentesEnCours = new AtomicInteger();
+
+    private final AtomicLong nombreEmprunts = new AtomicLong();
+    private final AtomicLong nombreTimeouts = new AtomicLong();
+    private final AtomicLong nombreFuites = new AtomicLong();
+    private final AtomicLong tempsAttenteTotalNs = new AtomicLong();
+    private final AtomicLong tempsAttenteMaxNs = new AtomicLong();
+    private final StatementCache.Compteurs compteursCache = new StatementCache.Compteurs();
+
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean ferme = false;
+
+    public ConnectionPool(String url, String utilisateur, String motDePasse,
+                          int tailleMin, int tailleMax, long delaiAcquisitionMs,
+                          long dureeInactiviteMaxMs, long seuilFuiteMs, int delaiValidationSec,
+                          int tailleCacheStatements, boolean traceEmprunts, long validationApresInactiviteMs) {
+        if (tailleMin < 0 || tailleMax < 1 || tailleMin > tailleMax) {
+            throw new IllegalArgumentException("Tailles de pool invalides: min=" + tailleMin + ", max=" + tailleMax);
+        }
+        this.url = url;
+        this.utilisateur = utilisateur;
+        this.motDePasse = motDePasse;
+        this.tailleMin = tailleMin;
+        this.tailleMax = tailleMax;
+        this.delaiAcquisitionMs = delaiAcquisitionMs;
+        this.dureeInactiviteMaxMs = dureeInactiviteMaxMs;
+        this.seuilFuiteMs = seuilFuiteMs;
+        this.delaiValidationSec = delaiValidationSec;
+        this.tailleCacheStatements = tailleCacheStatements;
+        this.traceEmprunts = traceEmprunts;
+        this.validationApresInactiviteMs = validationApresInactiviteMs;
+        this.permis = new Semaphore(tailleMax, true);
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-connexions-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        long periode = Math.max(1000, Math.min(dureeInactiviteMaxMs, seuilFuiteMs) / 2);
+        maintenance.scheduleWithFixedDelay(this::entretenir, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Créer les connexions minimales à l'avance
+     * @throws SQLException si la base est injoignable
+     */
+    public void initialiser() throws SQLException {
+        while (totalConnexions.get() < tailleMin) {
+            inactives.offerLast(creerConnexion());
+        }
+    }
+
+    /**
+     * Emprunter une connexion, en attendant au plus le délai d'acquisition
+     * @return Connexion à fermer après usage pour la rendre au pool
+     * @throws SQLException si le délai est dépassé ou la connexion impossible
+     */
+    public Connection emprunter() throws SQLException {
+        if (ferme) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+
+        long debut = System.nanoTime();
+        attentesEnCours.incrementAndGet();
+        try {
+            if (!permis.tryAcquire(delaiAcquisitionMs, TimeUnit.MILLISECONDS)) {
+                nombreTimeouts.incrementAndGet();
+                throw new SQLTimeoutException("Aucune connexion disponible après " + delaiAcquisitionMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente de connexion interrompue", e);
+        } finally {
+            attentesEnCours.decrementAndGet();
+        }
+
+        try {
+            ConnexionPhysique physique = obtenirConnexionValide();
+            enregistrerAttente(System.nanoTime() - debut);
+            nombreEmprunts.incrementAndGet();
+
+            empruntees.put(physique, new Emprunt(Thread.currentThread().getName(),
+                    traceEmprunts ? new Throwable("Connexion empruntée ici") : null));
+            return envelopper(physique);
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Statistiques instantanées du pool
+     */
+    public StatistiquesPool getStatistiques() {
+        long emprunts = nombreEmprunts.get();
+        return new StatistiquesPool(
+            empruntees.size(),
+            inactives.size(),
+            totalConnexions.get(),
+            attentesEnCours.get(),
+            emprunts,
+            nombreTimeouts.get(),
+            nombreFuites.get(),
+            emprunts > 0 ? tempsAttenteTotalNs.get() / emprunts / 1_000_000.0 : 0,
+            tempsAttenteMaxNs.get() / 1_000_000.0,
+            compteursCache.hits.get(),
+            compteursCache.misses.get(),
+            compteursCache.evictions.get()
+        );
+    }
+
+    /**
+     * Fermer le pool et toutes les connexions inactives
+     */
+    public void fermer() {
+        ferme = true;
+        maintenance.shutdownNow();
+        ConnexionPhysique physique;
+        while ((physique = inactives.pollFirst()) != null) {
+            detruire(physique);
+        }
+    }
+
+    private ConnexionPhysique obtenirConnexionValide() throws SQLException {
+        ConnexionPhysique physique;
+        while ((physique = inactives.pollFirst()) != null) {
+            if (estValide(physique)) {
+                return physique;
+            }
+            detruire(physique);
+        }
+        return creerConnexion();
+    }
+
+    private boolean estValide(ConnexionPhysique physique) {
+        try {
+            if (physique.connexion.isClosed()) {
+                return false;
+            }
+            // Rendue récemment: l'aller-retour de validation coûterait plus qu'il ne protège
+            if (System.currentTimeMillis() - physique.derniereUtilisation < validationApresInactiviteMs) {
+                return true;
+            }
+            return physique.connexion.isValid(delaiValidationSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private ConnexionPhysique creerConnexion() throws SQLException {
+        Connection connexion = DriverManager.getConnection(url, utilisateur, motDePasse);
+        totalConnexions.incrementAndGet();
+        StatementCache cache = tailleCacheStatements > 0
+                ? new StatementCache(connexion, tailleCacheStatements, compteursCache)
+                : null;
+        return new ConnexionPhysique(connexion, cache);
+    }
+
+    private void detruire(ConnexionPhysique physique) {
+        totalConnexions.decrementAndGet();
+        if (physique.cache != null) {
+            physique.cache.vider();
+        }
+        try {
+            physique.connexion.close();
+        } catch (SQLException e) {
+            // Connexion déjà inutilisable
+        }
+    }
+
+    private void rendre(ConnexionPhysique physique) {
+        empruntees.remove(physique);
+        try {
+            if (ferme || physique.connexion.isClosed()) {
+                detruire(physique);
+                return;
+            }
+            if (!physique.connexion.getAutoCommit()) {
+                physique.connexion.rollback();
+                physique.connexion.setAutoCommit(true);
+            }
+            physique.connexion.clearWarnings();
+            physique.derniereUtilisation = System.currentTimeMillis();
+            inactives.offerFirst(physique);
+        } catch (SQLException e) {
+            detruire(physique);
+        } finally {
+            permis.release();
+        }
+    }
+
+    private void enregistrerAttente(long attenteNs) {
+        tempsAttenteTotalNs.addAndGet(attenteNs);
+        tempsAttenteMaxNs.accumulateAndGet(attenteNs, Math::max);
+    }
+
+    // Éviction des connexions inactives et détection des fuites
+    private void entretenir() {
+        long maintenant = System.currentTimeMillis();
+
+        Iterator<ConnexionPhysique> it = inactives.descendingIterator();
+        while (it.hasNext() && totalConnexions.get() > tailleMin) {
+            ConnexionPhysique physique = it.next();
+            if (maintenant - physique.derniereUtilisation > dureeInactiviteMaxMs && inactives.remove(physique)) {
+                detruire(physique);
+            }
+        }
+
+        for (Map.Entry<ConnexionPhysique, Emprunt> entry : empruntees.entrySet()) {
+            Emprunt emprunt = entry.getValue();
+            if (!emprunt.signale && maintenant - emprunt.debut > seuilFuiteMs) {
+                emprunt.signale = true;
+                nombreFuites.incrementAndGet();
+                System.err.println("Fuite de connexion probable: empruntée par " + emprunt.thread
+                        + " depuis " + (maintenant - emprunt.debut) + " ms");
+                if (emprunt.origine != null) {
+                    emprunt.origine.printStackTrace();
+                } else {
+                    System.err.println("(activer microfinance.pool.leakTrace pour la trace de l'emprunt)");
+                }
+            }
+        }
+
+        try {
+            while (!ferme && totalConnexions.get() < tailleMin) {
+                inactives.offerLast(creerConnexion());
+            }
+        } catch (SQLException e) {
+            System.err.println("Impossible de recréer les connexions minimales: " + e.getMessage());
+        }
+    }
+
+    private Connection envelopper(ConnexionPhysique physique) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            new ConnexionEmpruntee(physique)
+        );
+    }
+
+    private static class ConnexionPhysique {
+        private final Connection connexion;
+        private final StatementCache cache;
+        private volatile long derniereUtilisation = System.currentTimeMillis();
+
+        private ConnexionPhysique(Connection connexion, StatementCache cache) {
+            this.connexion = connexion;
+            this.cache = cache;
+        }
+    }
+
+    private static class Emprunt {
+        private final long debut = System.currentTimeMillis();
+        private final String thread;
+        private final Throwable origine;
+        private volatile boolean signale = false;
+
+        private Emprunt(String thread, Throwable origine) {
+            this.thread = thread;
+            this.origine = origine;
+        }
+    }
+
+    // Proxy rendant la connexion au pool à la fermeture
+    private class ConnexionEmpruntee implements InvocationHandler {
+        private final ConnexionPhysique physique;
+        private boolean rendue = false;
+
+        private ConnexionEmpruntee(ConnexionPhysique physique) {
+            this.physique = physique;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!rendue) {
+                        rendue = true;
+                        rendre(physique);
+                    }
+                    return null;
+                case "isClosed":
+                    return rendue || physique.connexion.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConnexionEmpruntee[" + physique.connexion + "]";
+                default:
+                    break;
+            }
+
+            if (rendue) {
+                throw new SQLException("Connexion déjà rendue au pool");
+            }
+            if (physique.cache != null && "prepareStatement".equals(method.getName()) && args.length == 1) {
+                return physique.cache.preparer((String) args[0]);
+            }
+            try {
+                return method.invoke(physique.connexion, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    public static class StatistiquesPool {
+        private final int connexionsActives;
+        private final int connexionsInactives;
+        private final int totalConnexions;
+        private final int attentesEnCours;
+        private final long nombreEmprunts;
+        private final long nombreTimeouts;
+        private final long nombreFuites;
+        private final double tempsAttenteMoyenMs;
+        private final double tempsAttenteMaxMs;
+        private final long cacheHits;
+        private final long cacheMisses;
+        private final long cacheEvictions;
+
+        public StatistiquesPool(int connexionsActives, int connexionsInactives, int totalConnexions,
+                                int attentesEnCours, long nombreEmprunts, long nombreTimeouts,
+                                long nombreFuites, double tempsAttenteMoyenMs, double tempsAttenteMaxMs,
+                                long cacheHits, long cacheMisses, long cacheEvictions) {
+            this.connexionsActives = connexionsActives;
+            this.connexionsInactives = connexionsInactives;
+            this.totalConnexions = totalConnexions;
+            this.attentesEnCours = attentesEnCours;
+            this.nombreEmprunts = nombreEmprunts;
+            this.nombreTimeouts = nombreTimeouts;
+            this.nombreFuites = nombreFuites;
+            this.tempsAttenteMoyenMs = tempsAttenteMoyenMs;
+            this.tempsAttenteMaxMs = tempsAttenteMaxMs;
+            this.cacheHits = cacheHits;
+            this.cacheMisses = cacheMisses;
+            this.cacheEvictions = cacheEvictions;
+        }
+
+        // Getters
+        public int getConnexionsActives() { return connexionsActives; }
+        public int getConnexionsInactives() { return connexionsInactives; }
+        public int getTotalConnexions() { return totalConnexions; }
+        public int getAttentesEnCours() { return attentesEnCours; }
+        public long getNombreEmprunts() { return nombreEmprunts; }
+        public long getNombreTimeouts() { return nombreTimeouts; }
+        public long getNombreFuites() { return nombreFuites; }
+        public double getTempsAttenteMoyenMs() { return tempsAttenteMoyenMs; }
+        public double getTempsAttenteMaxMs() { return tempsAttenteMaxMs; }
+        public long getCacheHits() { return cacheHits; }
+        public long getCacheMisses() { return cacheMisses; }
+        public long getCacheEvictions() { return cacheEvictions; }
+        public double getCacheHitRatio() {
+            long total = cacheHits + cacheMisses;
+            return total > 0 ? (double) cacheHits / total : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool[actives=%d, inactives=%d, total=%d, en attente=%d, emprunts=%d, timeouts=%d, fuites=%d, attente moy=%.2f ms, max=%.2f ms, cache statements hits=%d, misses=%d, evictions=%d]",
+                    connexionsActives, connexionsInactives, totalConnexions, attentesEnCours,
+                    nombreEmprunts, nombreTimeouts, nombreFuites, tempsAttenteMoyenMs, tempsAttenteMaxMs,
+                    cacheHits, cacheMisses, cacheEvictions);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.microfinance.scoring.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU de PreparedStatement pour une connexion physique du pool, indexé par le texte SQL
+ * Les statements rendus sont des proxies: close() les remet dans le cache au lieu de les fermer.
+ * Une connexion n'étant utilisée que par un emprunteur à la fois, le cache n'est pas partagé entre threads.
+ */
+class StatementCache {
+
+    private final Connection connexion;
+    private final int capacite;
+    private final Compteurs compteurs;
+    private final LinkedHashMap<String, Entree> entrees = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection connexion, int capacite, Compteurs compteurs) {
+        this.connexion = connexion;
+        this.capacite = capacite;
+        this.compteurs = compteurs;
+    }
+
+    /**
+     * Préparer (ou réutiliser) un statement pour ce SQL
+     * @param sql Requête SQL constante
+     * @return Statement à fermer après usage pour le rendre au cache
+     * @throws SQLException si la préparation échoue
+     */
+    PreparedStatement preparer(String sql) throws SQLException {
+        Entree entree = entrees.get(sql);
+        if (entree != null && !entree.enUsage) {
+            compteurs.hits.incrementAndGet();
+            entree.enUsage = true;
+            return entree.proxy;
+        }
+
+        compteurs.misses.incrementAndGet();
+        if (entree != null) {
+            // Même requête déjà ouverte par l'emprunteur: statement éphémère non mis en cache
+            return connexion.prepareStatement(sql);
+        }
+
+        PreparedStatement statement = connexion.prepareStatement(sql);
+        try {
+            entree = new Entree(statement);
+        } catch (SQLException e) {
+            fermerSilencieusement(statement);
+            throw e;
+        }
+        entree.enUsage = true;
+        entrees.put(sql, entree);
+        evincer();
+        return entree.proxy;
+    }
+
+    /**
+     * Fermer réellement tous les statements du cache (destruction de la connexion)
+     */
+    void vider() {
+        for (Entree entree : entrees.values()) {
+            fermerSilencieusement(entree.statement);
+        }
+        entrees.clear();
+    }
+
+    private void evincer() {
+        Iterator<Map.Entry<String, Entree>> it = entrees.entrySet().iterator();
+        while (entrees.size() > capacite && it.hasNext()) {
+            Entree plusAncienne = it.next().getValue();
+            if (!plusAncienne.enUsage) {
+                it.remove();
+                fermerSilencieusement(plusAncienne.statement);
+                compteurs.evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static void fermerSilencieusement(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Statement déjà inutilisable
+        }
+    }
+
+    private static class Entree {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean enUsage = false;
+        // Réglages à la création, restaurés au retour dans le cache
+        private final int fetchSizeInitial;
+        private final int maxRowsInitial;
+        private final int queryTimeoutInitial;
+
+        private Entree(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.fetchSizeInitial = statement.getFetchSize();
+            this.maxRowsInitial = statement.getMaxRows();
+            this.queryTimeoutInitial = statement.getQueryTimeout();
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (enUsage) {
+                                enUsage = false;
+                                reinitialiser();
+                            }
+                            return null;
+                        case "isClosed":
+                            return !enUsage || statement.isClosed();
+                        case "equals":
+                            return p == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(p);
+                        default:
+                            break;
+                    }
+                    if (!enUsage) {
+                        throw new SQLException("Statement déjà rendu au cache");
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            );
+        }
+
+        private void reinitialiser() throws SQLException {
+            ResultSet rs = statement.getResultSet();
+            if (rs != null) {
+                rs.close();
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            // Un emprunteur suivant ne doit pas hériter d'un fetchSize, maxRows ou timeout modifié
+            if (statement.getFetchSize() != fetchSizeInitial) {
+                statement.setFetchSize(fetchSizeInitial);
+            }
+            if (statement.getMaxRows() != maxRowsInitial) {
+                statement.setMaxRows(maxRowsInitial);
+            }
+            if (statement.getQueryTimeout() != queryTimeoutInitial) {
+                statement.setQueryTimeout(queryTimeoutInitial);
+            }
+        }
+    }
+
+    // Compteurs partagés par tous les caches du pool
+    static class Compteurs {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+    }
+}
@@ -0,0 +1,197 @@
+package com.microfinance.scoring.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Unité de travail transactionnelle liée au thread courant
+ * Tant qu'une unité est ouverte, ConnectionDB.getConnection() renvoie la même connexion:
+ * les repositories rejoignent ainsi la transaction sans changer de code, et l'ensemble
+ * des écritures est validé par un seul commit.
+ * Un commit et ses actions apresCommit forment une section partagée de la barrière des commits:
+ * une section exclusive (sansCommitEnCours) les voit tous soit achevés, soit pas commencés.
+ */
+public final class UnitOfWork {
+
+    private static final ThreadLocal<UnitOfWork> COURANTE = new ThreadLocal<>();
+    private static final ReentrantReadWriteLock BARRIERE = new ReentrantReadWriteLock();
+
+    private final Connection connexion;
+    private final Connection connexionPartagee;
+    private boolean rollbackOnly = false;
+    private List<Runnable> apresCommit = null;
+
+    private UnitOfWork(Connection connexion) {
+        this.connexion = connexion;
+        this.connexionPartagee = (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    // La fin de transaction appartient à l'unité de travail, pas aux repositories
+                    case "close":
+                    case "commit":
+                    case "setAutoCommit":
+                        return null;
+                    case "rollback":
+                        if (args == null) {
+                            rollbackOnly = true;
+                            return null;
+                        }
+                        break;
+                    case "isClosed":
+                        return connexion.isClosed();
+                    case "getAutoCommit":
+                        return false;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                try {
+                    return method.invoke(connexion, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        );
+    }
+
+    /**
+     * Exécuter un travail dans une transaction unique; rejoint la transaction en cours s'il y en a une
+     * @param travail Travail à exécuter
+     * @return Résultat du travail
+     * @throws SQLException si la transaction échoue ou a été marquée pour annulation
+     */
+    public static <T> T executer(Travail<T> travail) throws SQLException {
+        if (COURANTE.get() != null) {
+            try {
+                return travail.executer();
+            } catch (Exception e) {
+                COURANTE.get().rollbackOnly = true;
+                throw propager(e);
+            }
+        }
+
+        try (Connection connexion = ConnectionDB.getInstance().getConnection()) {
+            connexion.setAutoCommit(false);
+            UnitOfWork unite = new UnitOfWork(connexion);
+            COURANTE.set(unite);
+
+            try {
+                T resultat = travail.executer();
+                if (unite.rollbackOnly) {
+                    connexion.rollback();
+                    throw new SQLException("Transaction annulée: une écriture a échoué");
+                }
+                BARRIERE.readLock().lock();
+                try {
+                    connexion.commit();
+                    unite.executerApresCommit();
+                } finally {
+                    BARRIERE.readLock().unlock();
+                }
+                return resultat;
+            } catch (Exception e) {
+                connexion.rollback();
+                throw propager(e);
+            } finally {
+                COURANTE.remove();
+            }
+        }
+    }
+
+    /**
+     * Exécuter une action courte pendant laquelle aucun commit n'est en cours: chaque commit antérieur
+     * a aussi exécuté ses actions apresCommit, aucun commit postérieur n'a commencé
+     * Ex: prendre un instantané cohérent de la base et basculer un état en mémoire alimenté par apresCommit.
+     * @param action Action exclusive; les commits des autres threads attendent sa fin
+     * @throws SQLException si l'action échoue
+     * @throws IllegalStateException depuis une transaction ou une action apresCommit (interblocage)
+     */
+    public static void sansCommitEnCours(Travail<?> action) throws SQLException {
+        if (COURANTE.get() != null || BARRIERE.getReadHoldCount() > 0) {
+            throw new IllegalStateException("Section exclusive impossible depuis une transaction en cours");
+        }
+        BARRIERE.writeLock().lock();
+        try {
+            action.executer();
+        } catch (Exception e) {
+            throw propager(e);
+        } finally {
+            BARRIERE.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Connexion de l'unité de travail du thread courant, ou null hors transaction
+     */
+    static Connection connexionCourante() {
+        UnitOfWork unite = COURANTE.get();
+        return unite != null ? unite.connexionPartagee : null;
+    }
+
+    public static boolean estActive() {
+        return COURANTE.get() != null;
+    }
+
+    /**
+     * Forcer l'annulation de la transaction en cours à sa clôture
+     */
+    public static void marquerRollback() {
+        UnitOfWork unite = COURANTE.get();
+        if (unite != null) {
+            unite.rollbackOnly = true;
+        }
+    }
+
+    /**
+     * Différer une action jusqu'au commit de la transaction en cours (abandonnée en cas de rollback);
+     * hors transaction, l'écriture est déjà validée et l'action s'exécute immédiatement
+     * @param action Action à exécuter, ex: mise à jour d'un index ou d'un cache en mémoire
+     */
+    public static void apresCommit(Runnable action) {
+        UnitOfWork unite = COURANTE.get();
+        if (unite == null) {
+            action.run();
+            return;
+        }
+        if (unite.apresCommit == null) {
+            unite.apresCommit = new ArrayList<>();
+        }
+        unite.apresCommit.add(action);
+    }
+
+    private void executerApresCommit() {
+        if (apresCommit == null) {
+            return;
+        }
+        for (Runnable action : apresCommit) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // La transaction est validée: un échec ici ne doit pas la faire passer pour annulée
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static SQLException propager(Exception e) {
+        if (e instanceof SQLException) {
+            return (SQLException) e;
+        }
+        return new SQLException(e.getMessage(), e);
+    }
+
+    @FunctionalInterface
+    public interface Travail<T> {
+        T executer() throws Exception;
+    }
+}
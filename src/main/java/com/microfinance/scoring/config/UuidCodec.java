@@ -0,0 +1,103 @@
+package com.microfinance.scoring.config;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Codec des identifiants UUID entre Java et MySQL
+ * En mode BINAIRE (défaut) les clés sont stockées en BINARY(16), sans passer par une chaîne;
+ * le mode TEXTE conserve l'ancien stockage VARCHAR(36) tant que la migration n'est pas faite.
+ */
+public final class UuidCodec {
+
+    public enum Stockage { BINAIRE, TEXTE }
+
+    private static final Stockage STOCKAGE =
+            Stockage.valueOf(System.getProperty("microfinance.db.uuidStorage", Stockage.BINAIRE.name()));
+
+    // 48 bits de timestamp (ms) suivis de 12 bits de séquence, strictement croissants
+    private static final AtomicLong DERNIER_HORODATAGE = new AtomicLong();
+
+    private UuidCodec() {
+    }
+
+    /**
+     * Générer un UUID version 7 ordonné dans le temps: les insertions arrivent en fin d'index InnoDB
+     * @return Nouvel identifiant
+     */
+    public static UUID nouvelId() {
+        long horodatage = DERNIER_HORODATAGE.updateAndGet(
+                precedent -> Math.max(System.currentTimeMillis() << 12, precedent + 1));
+
+        long msb = (horodatage >>> 12) << 16      // unix_ts_ms sur 48 bits
+                | 0x7000L                         // version 7
+                | (horodatage & 0xFFFL);          // séquence dans rand_a
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Lier un identifiant à un paramètre de requête (NULL si id est null)
+     */
+    public static void bind(PreparedStatement stmt, int index, UUID id) throws SQLException {
+        if (STOCKAGE == Stockage.BINAIRE) {
+            if (id == null) {
+                stmt.setNull(index, Types.BINARY);
+            } else {
+                stmt.setBytes(index, toBytes(id));
+            }
+        } else {
+            stmt.setString(index, id != null ? id.toString() : null);
+        }
+    }
+
+    /**
+     * Lire un identifiant depuis une colonne (null si la colonne est NULL)
+     */
+    public static UUID read(ResultSet rs, String colonne) throws SQLException {
+        if (STOCKAGE == Stockage.BINAIRE) {
+            byte[] octets = rs.getBytes(colonne);
+            return octets != null ? fromBytes(octets) : null;
+        }
+        String texte = rs.getString(colonne);
+        return texte != null ? UUID.fromString(texte) : null;
+    }
+
+    public static byte[] toBytes(UUID id) {
+        byte[] octets = new byte[16];
+        ecrireLong(octets, 0, id.getMostSignificantBits());
+        ecrireLong(octets, 8, id.getLeastSignificantBits());
+        return octets;
+    }
+
+    public static UUID fromBytes(byte[] octets) {
+        if (octets.length != 16) {
+            throw new IllegalArgumentException("Un UUID binaire fait 16 octets, reçu " + octets.length);
+        }
+        return new UUID(lireLong(octets, 0), lireLong(octets, 8));
+    }
+
+    public static Stockage getStockage() {
+        return STOCKAGE;
+    }
+
+    private static void ecrireLong(byte[] octets, int offset, long valeur) {
+        for (int i = 7; i >= 0; i--) {
+            octets[offset + i] = (byte) valeur;
+            valeur >>>= 8;
+        }
+    }
+
+    private static long lireLong(byte[] octets, int offset) {
+        long valeur = 0;
+        for (int i = 0; i < 8; i++) {
+            valeur = (valeur << 8) | (octets[offset + i] & 0xFF);
+        }
+        return valeur;
+    }
+}
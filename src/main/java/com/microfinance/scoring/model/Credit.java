@@ -1,5 +1,6 @@
 package com.microfinance.scoring.model;
 
+import com.microfinance.scoring.config.UuidCodec;
 import com.microfinance.scoring.model.enums.TypeCredit;
 import com.microfinance.scoring.model.enums.Decision;
 
@@ -17,6 +18,7 @@ public class Credit {
     private int dureeMois;
     private TypeCredit typeCredit;
     private Decision decision;
+    private UUID clientId;
 
     private List<Echeance> echeances;
 
@@ -25,7 +27,7 @@ public class Credit {
 
     }
     public Credit( Date dateCredit, double montantDemande, double montantOctroye, double tauxInteret, int dureeMois, TypeCredit typeCredit, Decision decision, List<Echeance> echeances) {
-        this.id = UUID.randomUUID();
+        this.id = UuidCodec.nouvelId();
         this.dateCredit = dateCredit;
         this.montantDemande = montantDemande;
         this.montantOctroye = montantOctroye;
@@ -40,6 +42,18 @@ public class Credit {
         return id;
     }
 
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(UUID clientId) {
+        this.clientId = clientId;
+    }
+
 
 
     public Date getDateCredit() {
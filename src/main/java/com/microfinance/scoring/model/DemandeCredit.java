@@ -0,0 +1,56 @@
+package com.microfinance.scoring.model;
+
+import com.microfinance.scoring.model.enums.TypeCredit;
+import java.util.UUID;
+
+/**
+ * Classe représentant une demande de crédit à traiter (saisie unitaire ou dépôt groupé)
+ */
+public class DemandeCredit {
+    private UUID clientId;
+    private double montantDemande;
+    private int dureeMois;
+    private TypeCredit typeCredit;
+
+    public DemandeCredit() {
+    }
+
+    public DemandeCredit(UUID clientId, double montantDemande, int dureeMois, TypeCredit typeCredit) {
+        this.clientId = clientId;
+        this.montantDemande = montantDemande;
+        this.dureeMois = dureeMois;
+        this.typeCredit = typeCredit;
+    }
+
+    public UUID getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(UUID clientId) {
+        this.clientId = clientId;
+    }
+
+    public double getMontantDemande() {
+        return montantDemande;
+    }
+
+    public void setMontantDemande(double montantDemande) {
+        this.montantDemande = montantDemande;
+    }
+
+    public int getDureeMois() {
+        return dureeMois;
+    }
+
+    public void setDureeMois(int dureeMois) {
+        this.dureeMois = dureeMois;
+    }
+
+    public TypeCredit getTypeCredit() {
+        return typeCredit;
+    }
+
+    public void setTypeCredit(TypeCredit typeCredit) {
+        this.typeCredit = typeCredit;
+    }
+}
@@ -1,5 +1,6 @@
 package com.microfinance.scoring.model;
 
+import com.microfinance.scoring.config.UuidCodec;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -7,30 +8,45 @@ import java.util.UUID;
 
 public class Echeance {
     private UUID id;
+    private int numero;
     private Date dateEcheance;
     private double mensualite;
+    private double montantCapital;
+    private double montantInteret;
     private Date datePaiement;
     private String statutPaiement;
+    private UUID creditId;
 
     private List<Incident> incidents;
 
     public Echeance()
     {
-        this.id=UUID.randomUUID();
-        this.incidents = new ArrayList<>();
+        this.id=UuidCodec.nouvelId();
     }
     public Echeance(Date dateEcheance, double mensualite, Date datePaiement, String statutPaiement, List<Incident> incidents) {
-        this.id=UUID.randomUUID();
+        this.id=UuidCodec.nouvelId();
         this.dateEcheance = dateEcheance;
         this.mensualite = mensualite;
         this.datePaiement = datePaiement;
         this.statutPaiement = statutPaiement;
-        this.incidents = new ArrayList<>();
     }
 
     public UUID getId() {
         return id;
     }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public int getNumero() {
+        return numero;
+    }
+
+    public void setNumero(int numero) {
+        this.numero = numero;
+    }
+
     public Date getDateEcheance() {
         return dateEcheance;
     }
@@ -47,6 +63,22 @@ public class Echeance {
         this.mensualite = mensualite;
     }
 
+    public double getMontantCapital() {
+        return montantCapital;
+    }
+
+    public void setMontantCapital(double montantCapital) {
+        this.montantCapital = montantCapital;
+    }
+
+    public double getMontantInteret() {
+        return montantInteret;
+    }
+
+    public void setMontantInteret(double montantInteret) {
+        this.montantInteret = montantInteret;
+    }
+
     public Date getDatePaiement() {
         return datePaiement;
     }
@@ -63,7 +95,19 @@ public class Echeance {
         this.statutPaiement = statutPaiement;
     }
 
+    public UUID getCreditId() {
+        return creditId;
+    }
+
+    public void setCreditId(UUID creditId) {
+        this.creditId = creditId;
+    }
+
+    // Liste créée au premier accès: un échéancier généré n'a pas encore d'incidents
     public List<Incident> getIncidents() {
+        if (incidents == null) {
+            incidents = new ArrayList<>();
+        }
         return incidents;
     }
 
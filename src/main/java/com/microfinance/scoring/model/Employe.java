@@ -33,6 +33,17 @@ public class Employe extends Personne {
         this.secteur = secteur;
     }
 
+    @Override
+    public Employe copier() {
+        Employe copie = copierVers(new Employe());
+        copie.salaire = salaire;
+        copie.anciennete = anciennete;
+        copie.poste = poste;
+        copie.typeContrat = typeContrat;
+        copie.secteur = secteur;
+        return copie;
+    }
+
     public double getSalaire() {
         return salaire;
     }
@@ -1,5 +1,6 @@
 package com.microfinance.scoring.model;
 
+import com.microfinance.scoring.config.UuidCodec;
 import java.util.Date;
 import java.util.UUID;
 
@@ -15,7 +16,7 @@ public class Incident {
 
     }
     public Incident(Date dateIncident, String echeance, int score, String typeIncident) {
-        this.id=UUID.randomUUID();
+        this.id=UuidCodec.nouvelId();
         this.dateIncident = dateIncident;
         this.echeance = echeance;
         this.score = score;
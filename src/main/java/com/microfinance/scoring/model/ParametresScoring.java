@@ -0,0 +1,78 @@
+package com.microfinance.scoring.model;
+
+import com.microfinance.scoring.model.enums.ComposantScoring;
+
+/**
+ * Instantané immuable des paramètres de scoring actifs (table parametres_scoring)
+ * Les poids et seuils sont agrégés par composant dans des tableaux primitifs indexés par ordinal,
+ * ce qui permet une lecture sans verrou depuis le chemin de scoring.
+ */
+public final class ParametresScoring {
+
+    private static final ParametresScoring DEFAUT = new ParametresScoring(
+            new double[]{25, 30, 20, 15, 10},
+            new int[]{0, 0, 0, 0, 0},
+            new int[]{100, 100, 100, 100, 100},
+            0L,
+            0
+    );
+
+    private final double[] poids;
+    private final int[] seuilsMin;
+    private final int[] seuilsMax;
+    private final double poidsTotal;
+    private final long versionModification;
+    private final int nombreLignes;
+
+    public ParametresScoring(double[] poids, int[] seuilsMin, int[] seuilsMax, long versionModification, int nombreLignes) {
+        int n = ComposantScoring.values().length;
+        if (poids.length != n || seuilsMin.length != n || seuilsMax.length != n) {
+            throw new IllegalArgumentException("Un poids et des seuils sont attendus pour chacun des " + n + " composants");
+        }
+        this.poids = poids.clone();
+        this.seuilsMin = seuilsMin.clone();
+        this.seuilsMax = seuilsMax.clone();
+        this.versionModification = versionModification;
+        this.nombreLignes = nombreLignes;
+
+        double total = 0;
+        for (double p : poids) {
+            total += p;
+        }
+        this.poidsTotal = total;
+    }
+
+    /**
+     * Paramètres historiques (25/30/20/15/10) utilisés tant que la table n'a pas été lue
+     */
+    public static ParametresScoring parDefaut() {
+        return DEFAUT;
+    }
+
+    public double getPoids(ComposantScoring composant) {
+        return poids[composant.ordinal()];
+    }
+
+    public int getSeuilMin(ComposantScoring composant) {
+        return seuilsMin[composant.ordinal()];
+    }
+
+    public int getSeuilMax(ComposantScoring composant) {
+        return seuilsMax[composant.ordinal()];
+    }
+
+    public double getPoidsTotal() {
+        return poidsTotal;
+    }
+
+    /**
+     * Date de modification la plus récente (epoch ms), sert à détecter les changements
+     */
+    public long getVersionModification() {
+        return versionModification;
+    }
+
+    public int getNombreLignes() {
+        return nombreLignes;
+    }
+}
@@ -1,5 +1,6 @@
 package com.microfinance.scoring.model;
 
+import com.microfinance.scoring.config.UuidCodec;
 import java.util.Date;
 import java.util.UUID;
 
@@ -19,11 +20,11 @@ public abstract class Personne {
 
     public Personne()
     {
-        this.id=UUID.randomUUID();
+        this.id=UuidCodec.nouvelId();
     }
 
     public Personne(String nom, String prenom, String ville, Date dateNaissance, int nombreEnfants, String investissement, String placement, String situationFamiliale, Date createdAt, int score) {
-        this.id=UUID.randomUUID();
+        this.id=UuidCodec.nouvelId();
         this.nom = nom;
         this.prenom = prenom;
         this.ville = ville;
@@ -36,6 +37,27 @@ public abstract class Personne {
         this.score = score;
     }
 
+    /**
+     * Copie indépendante (dates comprises), même identifiant
+     */
+    public abstract Personne copier();
+
+    // Copie des champs communs vers une nouvelle instance du même type
+    protected <T extends Personne> T copierVers(T copie) {
+        copie.id = id;
+        copie.nom = nom;
+        copie.prenom = prenom;
+        copie.ville = ville;
+        copie.dateNaissance = dateNaissance != null ? (Date) dateNaissance.clone() : null;
+        copie.nombreEnfants = nombreEnfants;
+        copie.investissement = investissement;
+        copie.placement = placement;
+        copie.situationFamiliale = situationFamiliale;
+        copie.createdAt = createdAt != null ? (Date) createdAt.clone() : null;
+        copie.score = score;
+        return copie;
+    }
+
     public String getNom() {
         return nom;
     }
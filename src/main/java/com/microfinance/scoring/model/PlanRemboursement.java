@@ -0,0 +1,67 @@
+package com.microfinance.scoring.model;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Paramètres d'un échéancier (table plans_remboursement)
+ * Suffisent à régénérer toutes les échéances théoriques d'un crédit.
+ */
+public class PlanRemboursement {
+    private UUID creditId;
+    private double montant;
+    private double tauxInteret;
+    private int dureeMois;
+    private LocalDate dateDebut;
+
+    public PlanRemboursement() {
+    }
+
+    public PlanRemboursement(UUID creditId, double montant, double tauxInteret, int dureeMois, LocalDate dateDebut) {
+        this.creditId = creditId;
+        this.montant = montant;
+        this.tauxInteret = tauxInteret;
+        this.dureeMois = dureeMois;
+        this.dateDebut = dateDebut;
+    }
+
+    public UUID getCreditId() {
+        return creditId;
+    }
+
+    public void setCreditId(UUID creditId) {
+        this.creditId = creditId;
+    }
+
+    public double getMontant() {
+        return montant;
+    }
+
+    public void setMontant(double montant) {
+        this.montant = montant;
+    }
+
+    public double getTauxInteret() {
+        return tauxInteret;
+    }
+
+    public void setTauxInteret(double tauxInteret) {
+        this.tauxInteret = tauxInteret;
+    }
+
+    public int getDureeMois() {
+        return dureeMois;
+    }
+
+    public void setDureeMois(int dureeMois) {
+        this.dureeMois = dureeMois;
+    }
+
+    public LocalDate getDateDebut() {
+        return dateDebut;
+    }
+
+    public void setDateDebut(LocalDate dateDebut) {
+        this.dateDebut = dateDebut;
+    }
+}
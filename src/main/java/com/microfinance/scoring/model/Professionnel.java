@@ -27,6 +27,16 @@ public class Professionnel extends Personne {
         this.activite = activite;
     }
 
+    @Override
+    public Professionnel copier() {
+        Professionnel copie = copierVers(new Professionnel());
+        copie.revenu = revenu;
+        copie.immatriculationFiscale = immatriculationFiscale;
+        copie.secteurActivite = secteurActivite;
+        copie.activite = activite;
+        return copie;
+    }
+
     public double getRevenu() {
         return revenu;
     }
@@ -0,0 +1,9 @@
+package com.microfinance.scoring.model.enums;
+
+public enum ComposantScoring {
+    STABILITE_PROFESSIONNELLE,
+    CAPACITE_FINANCIERE,
+    HISTORIQUE_CREDIT,
+    RELATION_CLIENT,
+    CRITERES_COMPLEMENTAIRES
+}
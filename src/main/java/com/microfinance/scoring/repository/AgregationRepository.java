@@ -0,0 +1,60 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.config.ConnectionDB;
+import java.sql.*;
+
+/**
+ * Exécution des agrégations sur credits, echeances et incidents
+ * Une seule requête GROUP BY par appel: seules les lignes agrégées quittent la base.
+ */
+public class AgregationRepository {
+
+    private ConnectionDB connectionDB;
+
+    public AgregationRepository() {
+        this.connectionDB = ConnectionDB.getInstance();
+    }
+
+    /**
+     * @param requete Dimensions, mesures et période
+     * @return Table des groupes, triée par dimensions (vide en cas d'erreur SQL)
+     */
+    public TableAgregation agreger(RequeteAgregation requete) {
+        String sql = requete.versSql();
+        int nbDimensions = requete.getDimensions().size();
+        int nbMesures = requete.getMesures().size();
+        TableAgregation table = new TableAgregation(requete, 64);
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (requete.getDebut() != null) {
+                stmt.setDate(index++, Date.valueOf(requete.getDebut()));
+            }
+            if (requete.getFin() != null) {
+                stmt.setDate(index, Date.valueOf(requete.getFin()));
+            }
+
+            String[] cles = new String[nbDimensions];
+            double[] mesures = new double[nbMesures];
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    for (int d = 0; d < nbDimensions; d++) {
+                        cles[d] = rs.getString(d + 1);
+                    }
+                    for (int m = 0; m < nbMesures; m++) {
+                        double valeur = rs.getDouble(nbDimensions + m + 1);
+                        mesures[m] = rs.wasNull() ? Double.NaN : valeur;
+                    }
+                    table.ajouter(cles, mesures);
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return table;
+    }
+}
@@ -0,0 +1,197 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UuidCodec;
+import java.sql.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index en mémoire des clients ayant au moins un crédit (Singleton)
+ * Chargé en tâche de fond au démarrage puis tenu à jour par CreditRepository après chaque commit;
+ * tant qu'il n'est pas chargé (ou pendant la revérification d'un client dont un crédit a été supprimé),
+ * la réponse est "inconnue" et l'appelant se replie sur une requête EXISTS.
+ */
+public class ClientsExistantsIndex {
+
+    private static ClientsExistantsIndex instance = null;
+
+    private final ConnectionDB connectionDB;
+    private final Set<UUID> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean chargementEnCours = new AtomicBoolean(false);
+    // Publication d'un chargement et invalidation sont exclusives (verrou)
+    private final Object verrou = new Object();
+    private long generation = 0;
+    // Clients retirés pendant un chargement (null hors chargement): la lecture en cours peut les avoir vus
+    private Set<UUID> retiresPendantChargement = null;
+    private volatile boolean charge = false;
+    // Clients en cours de revérification après une suppression: la base fait foi
+    private final ConcurrentHashMap<UUID, Integer> incertains = new ConcurrentHashMap<>();
+
+    private final AtomicLong sondes = new AtomicLong();
+    private final AtomicLong replis = new AtomicLong();
+
+    private ClientsExistantsIndex() {
+        this.connectionDB = ConnectionDB.getInstance();
+    }
+
+    public static synchronized ClientsExistantsIndex getInstance() {
+        if (instance == null) {
+            instance = new ClientsExistantsIndex();
+            instance.chargerEnFond();
+        }
+        return instance;
+    }
+
+    /**
+     * Sonder l'index
+     * @param clientId Identifiant du client
+     * @return TRUE/FALSE si l'index sait répondre, null s'il faut interroger la base
+     */
+    public Boolean sonder(UUID clientId) {
+        sondes.incrementAndGet();
+        if (incertains.containsKey(clientId)) {
+            replis.incrementAndGet();
+            return null;
+        }
+        if (clients.contains(clientId)) {
+            return Boolean.TRUE;
+        }
+        if (charge) {
+            return Boolean.FALSE;
+        }
+        replis.incrementAndGet();
+        chargerEnFond();
+        return null;
+    }
+
+    public void ajouter(UUID clientId) {
+        if (clientId != null) {
+            clients.add(clientId);
+        }
+    }
+
+    /**
+     * Après la suppression d'un crédit: retirer le client s'il n'a plus aucun crédit
+     * Le client est retiré avant la vérification puis rajouté si la base en trouve encore un: un
+     * ajouter() concurrent (appelé après son commit) est donc toujours vu par la requête ou appliqué
+     * après le retrait. Pendant la vérification, les sondes sur ce client se replient sur la base.
+     * Un chargement en cours a pu lire le client avant la suppression: il est noté pour que la
+     * publication de ce chargement ne le réintroduise pas.
+     */
+    public void retirerSiSansCredit(UUID clientId) {
+        if (clientId == null) {
+            return;
+        }
+        incertains.merge(clientId, 1, Integer::sum);
+        try {
+            synchronized (verrou) {
+                if (retiresPendantChargement != null) {
+                    retiresPendantChargement.add(clientId);
+                }
+                clients.remove(clientId);
+            }
+            if (aDesCredits(clientId)) {
+                clients.add(clientId);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            invalider();
+        } finally {
+            incertains.computeIfPresent(clientId, (id, n) -> n > 1 ? n - 1 : null);
+        }
+    }
+
+    private boolean aDesCredits(UUID clientId) throws SQLException {
+        String sql = "SELECT EXISTS(SELECT 1 FROM credits WHERE client_id = ?)";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            UuidCodec.bind(stmt, 1, clientId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Oublier tout le contenu; les sondes se replient sur la base jusqu'au prochain chargement
+     */
+    public void invalider() {
+        synchronized (verrou) {
+            generation++;
+            charge = false;
+            clients.clear();
+        }
+    }
+
+    public boolean estCharge() {
+        return charge;
+    }
+
+    public int getTaille() {
+        return clients.size();
+    }
+
+    public long getSondes() {
+        return sondes.get();
+    }
+
+    public long getReplis() {
+        return replis.get();
+    }
+
+    private void chargerEnFond() {
+        if (charge || !chargementEnCours.compareAndSet(false, true)) {
+            return;
+        }
+        Thread t = new Thread(this::charger, "clients-existants-index");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void charger() {
+        long generationDebut;
+        synchronized (verrou) {
+            generationDebut = generation;
+            retiresPendantChargement = new HashSet<>();
+        }
+        Set<UUID> lus = new HashSet<>();
+        String sql = "SELECT DISTINCT client_id FROM credits WHERE client_id IS NOT NULL";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    lus.add(UuidCodec.read(rs, "client_id"));
+                }
+            }
+            // Une invalidation pendant la lecture rend le résultat périmé: le jeter. Vérification
+            // et publication sous le même verrou que invalider(), sinon l'index pourrait se dire
+            // chargé juste après avoir été vidé. Les clients retirés depuis le début de la lecture
+            // sont exclus: ceux qui ont encore un crédit ont été rajoutés par retirerSiSansCredit.
+            synchronized (verrou) {
+                if (generation == generationDebut) {
+                    lus.removeAll(retiresPendantChargement);
+                    clients.addAll(lus);
+                    charge = true;
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            synchronized (verrou) {
+                retiresPendantChargement = null;
+            }
+            chargementEnCours.set(false);
+        }
+    }
+}
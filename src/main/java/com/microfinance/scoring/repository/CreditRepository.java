@@ -1,48 +1,124 @@
 package com.microfinance.scoring.repository;
 
 import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UnitOfWork;
+import com.microfinance.scoring.config.UuidCodec;
 import com.microfinance.scoring.model.Credit;
 import com.microfinance.scoring.model.enums.Decision;
 import com.microfinance.scoring.model.enums.TypeCredit;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class CreditRepository {
     
+    // Secteur d'activité des professionnels, secteur de l'employeur pour les employés
+    private static final String SQL_AVEC_CLIENT = "SELECT c.*, p.ville, COALESCE(pr.secteur_activite, e.secteur) AS secteur " +
+                    "FROM credits c JOIN personnes p ON p.id = c.client_id " +
+                    "LEFT JOIN employes e ON e.personne_id = c.client_id " +
+                    "LEFT JOIN professionnels pr ON pr.personne_id = c.client_id";
+    private static final String SQL_INSERT = "INSERT INTO credits (id, date_credit, montant_demande, montant_octroye, taux_interet, duree_mois, type_credit, decision, client_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    // Nombre maximal d'identifiants par clause IN
+    private static final int TAILLE_LOT_IN = 500;
+    
     private ConnectionDB connectionDB;
+    private ClientsExistantsIndex clientsExistants;
+    private EvenementsCredits evenements;
     
     public CreditRepository() {
         this.connectionDB = ConnectionDB.getInstance();
+        this.clientsExistants = ClientsExistantsIndex.getInstance();
+        this.evenements = EvenementsCredits.getInstance();
     }
     
     // CREATE
     public boolean save(Credit credit) {
-        String sql = "INSERT INTO credits (id, date_credit, montant_demande, montant_octroye, taux_interet, duree_mois, type_credit, decision, client_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = connectionDB.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return ecrire(() -> {
+            try (Connection conn = connectionDB.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(SQL_INSERT)) {
+            
+                bindInsert(stmt, credit);
+                if (stmt.executeUpdate() > 0) {
+                    UUID clientId = credit.getClientId();
+                    UnitOfWork.apresCommit(() -> clientsExistants.ajouter(clientId));
+                    evenements.publierCreation(credit);
+                    return true;
+                }
+                return false;
             
-            stmt.setString(1, credit.getId().toString());
-            stmt.setDate(2, new java.sql.Date(credit.getDateCredit().getTime()));
-            stmt.setDouble(3, credit.getMontantDemande());
-            stmt.setDouble(4, credit.getMontantOctroye());
-            stmt.setDouble(5, credit.getTauxInteret());
-            stmt.setInt(6, credit.getDureeMois());
-            stmt.setString(7, credit.getTypeCredit().toString());
-            stmt.setString(8, credit.getDecision().toString());
-            // stmt.setString(9, credit.getClientId().toString()); // À ajouter selon votre modèle
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
+            }
+        });
+    }
+    
+    // CREATE - Insertion par lots de plusieurs crédits, en une seule transaction
+    public boolean saveAll(List<Credit> credits) {
+        if (credits.isEmpty()) {
+            return true;
+        }
+        
+        return ecrire(() -> {
+            try (Connection conn = connectionDB.getConnection()) {
+                conn.setAutoCommit(false);
             
-            return stmt.executeUpdate() > 0;
+                try (PreparedStatement stmt = conn.prepareStatement(SQL_INSERT)) {
+                
+                    for (Credit credit : credits) {
+                        bindInsert(stmt, credit);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                
+                    conn.commit();
+                    UnitOfWork.apresCommit(() -> credits.forEach(credit -> clientsExistants.ajouter(credit.getClientId())));
+                    credits.forEach(evenements::publierCreation);
+                    return true;
+                
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
             
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
+            }
+        });
+    }
+    
+    // Écriture validée par une UnitOfWork (rejointe si elle existe): son commit et la publication de
+    // ses événements ne chevauchent jamais la réconciliation de CompteursPortefeuille
+    private boolean ecrire(UnitOfWork.Travail<Boolean> ecriture) {
+        try {
+            return UnitOfWork.executer(ecriture);
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
     
+    private void bindInsert(PreparedStatement stmt, Credit credit) throws SQLException {
+        UuidCodec.bind(stmt, 1, credit.getId());
+        stmt.setDate(2, new java.sql.Date(credit.getDateCredit().getTime()));
+        stmt.setDouble(3, credit.getMontantDemande());
+        stmt.setDouble(4, credit.getMontantOctroye());
+        stmt.setDouble(5, credit.getTauxInteret());
+        stmt.setInt(6, credit.getDureeMois());
+        stmt.setString(7, credit.getTypeCredit().toString());
+        stmt.setString(8, credit.getDecision().toString());
+        UuidCodec.bind(stmt, 9, credit.getClientId());
+    }
+    
     // READ - Find by ID
     public Optional<Credit> findById(UUID id) {
         String sql = "SELECT * FROM credits WHERE id = ?";
@@ -50,7 +126,7 @@ public class CreditRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id.toString());
+            UuidCodec.bind(stmt, 1, id);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -84,6 +160,78 @@ public class CreditRepository {
         return credits;
     }
     
+    // READ - Stream all credits page by page (constant memory)
+    public Stream<Credit> streamAll() {
+        return LecturePaginee.stream(connectionDB,
+                "SELECT * FROM credits",
+                "id", LecturePaginee.TAILLE_PAGE_DEFAUT, this::mapResultSetToCredit);
+    }
+    
+    // READ - Stream credits with their client's city and sector, page by page (constant memory)
+    public Stream<CreditClient> streamAvecClient() {
+        return LecturePaginee.stream(connectionDB, SQL_AVEC_CLIENT,
+                "c.id", LecturePaginee.TAILLE_PAGE_DEFAUT, this::mapResultSetToCreditClient);
+    }
+    
+    // READ - Find one credit with its client's city and sector
+    public Optional<CreditClient> findAvecClient(UUID id) {
+        String sql = SQL_AVEC_CLIENT + " WHERE c.id = ?";
+        
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            UuidCodec.bind(stmt, 1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(mapResultSetToCreditClient(rs));
+                }
+            }
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return Optional.empty();
+    }
+    
+    // READ - Active credits with their repayment aggregates (v_performance_remboursements)
+    // La vue ne lit que echeances: exacte seulement pour des échéanciers stockés en mode COMPLET
+    // Une seule requête lue en streaming: paginer relancerait l'agrégation de la vue à chaque page
+    public long parcourirPerformances(Consumer<PerformanceCredit> consommateur) {
+        String sql = "SELECT c.*, v.nom, v.prenom, v.nb_echeances_total, v.nb_echeances_payees, v.nb_echeances_retard, " +
+                    "v.moyenne_jours_retard, v.total_paye, v.total_du " +
+                    "FROM credits c JOIN v_performance_remboursements v ON v.credit_id = c.id " +
+                    "ORDER BY c.id";
+        long lus = 0;
+        
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consommateur.accept(new PerformanceCredit(
+                        mapResultSetToCredit(rs),
+                        rs.getString("nom"),
+                        rs.getString("prenom"),
+                        rs.getInt("nb_echeances_total"),
+                        rs.getInt("nb_echeances_payees"),
+                        rs.getInt("nb_echeances_retard"),
+                        rs.getDouble("moyenne_jours_retard"),
+                        rs.getDouble("total_paye"),
+                        rs.getDouble("total_du")
+                    ));
+                    lus++;
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Lecture des performances interrompue après " + lus + " crédits", e);
+        }
+        
+        return lus;
+    }
+    
     // READ - Find by Client ID
     public List<Credit> findByClientId(UUID clientId) {
         List<Credit> credits = new ArrayList<>();
@@ -92,7 +240,7 @@ public class CreditRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, clientId.toString());
+            UuidCodec.bind(stmt, 1, clientId);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -106,6 +254,82 @@ public class CreditRepository {
         return credits;
     }
     
+    // READ - Le client a-t-il déjà au moins un crédit? (index en mémoire, EXISTS en repli)
+    public boolean existsByClientId(UUID clientId) {
+        Boolean connu = clientsExistants.sonder(clientId);
+        if (connu != null) {
+            return connu;
+        }
+        
+        String sql = "SELECT EXISTS(SELECT 1 FROM credits WHERE client_id = ?)";
+        
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            UuidCodec.bind(stmt, 1, clientId);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next() && rs.getBoolean(1)) {
+                clientsExistants.ajouter(clientId);
+                return true;
+            }
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return false;
+    }
+    
+    // READ - Parmi les clients donnés, ceux qui ont déjà au moins un crédit (RuntimeException si la base échoue)
+    public Set<UUID> findClientIdsAvecCredits(Collection<UUID> clientIds) {
+        Set<UUID> existants = new HashSet<>();
+        if (clientIds.isEmpty()) {
+            return existants;
+        }
+
+        // Seuls les clients que l'index ne sait pas classer sont cherchés en base
+        List<UUID> liste = new ArrayList<>();
+        for (UUID clientId : clientIds) {
+            Boolean connu = clientsExistants.sonder(clientId);
+            if (connu == null) {
+                liste.add(clientId);
+            } else if (connu) {
+                existants.add(clientId);
+            }
+        }
+        if (liste.isEmpty()) {
+            return existants;
+        }
+
+        try (Connection conn = connectionDB.getConnection()) {
+
+            for (int debut = 0; debut < liste.size(); debut += TAILLE_LOT_IN) {
+                List<UUID> lot = liste.subList(debut, Math.min(debut + TAILLE_LOT_IN, liste.size()));
+                String sql = "SELECT DISTINCT client_id FROM credits WHERE client_id IN (" +
+                            PersonneRepository.placeholders(PersonneRepository.tailleIn(lot.size())) + ")";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    PersonneRepository.bindIn(stmt, 1, lot);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            UUID clientId = UuidCodec.read(rs, "client_id");
+                            existants.add(clientId);
+                            clientsExistants.ajouter(clientId);
+                        }
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            // Un résultat partiel ferait passer des clients existants pour nouveaux: échouer
+            throw new RuntimeException("Recherche des clients existants parmi " + liste.size() + " clients impossible", e);
+        }
+
+        return existants;
+    }
+    
     // READ - Find by Decision
     public List<Credit> findByDecision(String decision) {
         List<Credit> credits = new ArrayList<>();
@@ -128,14 +352,26 @@ public class CreditRepository {
         return credits;
     }
     
+    // READ - Find by Decision, one page at a time (keyset on date_credit, id)
+    public Page<Credit> findByDecision(String decision, int taillePage, String curseur) {
+        return RequetePaginee.executer(connectionDB,
+                "SELECT * FROM credits WHERE decision = ?",
+                stmt -> {
+                    stmt.setString(1, decision);
+                    return 1;
+                },
+                "date_credit", RequetePaginee.TypeCle.DATE, "id", taillePage, curseur, this::mapResultSetToCredit);
+    }
+    
     // READ - Find active credits
     public List<Credit> findActiveCredits() {
         List<Credit> credits = new ArrayList<>();
+        // Échéanciers virtuels: les échéances à venir ne sont pas stockées, la fin du plan en tient lieu
         String sql = "SELECT c.* FROM credits c " +
-                    "JOIN echeances e ON c.id = e.credit_id " +
-                    "WHERE e.statut_paiement IN ('ENRETARD', 'IMPAYENONREGLE') " +
-                    "OR e.date_echeance > CURRENT_DATE " +
-                    "GROUP BY c.id " +
+                    "WHERE EXISTS (SELECT 1 FROM echeances e WHERE e.credit_id = c.id " +
+                    "AND (e.statut_paiement IN ('ENRETARD', 'IMPAYENONREGLE') OR e.date_echeance > CURRENT_DATE)) " +
+                    "OR EXISTS (SELECT 1 FROM plans_remboursement pr WHERE pr.credit_id = c.id " +
+                    "AND DATE_ADD(pr.date_debut, INTERVAL pr.duree_mois MONTH) > CURRENT_DATE) " +
                     "ORDER BY c.date_credit DESC";
         
         try (Connection conn = connectionDB.getConnection();
@@ -177,7 +413,85 @@ public class CreditRepository {
         return credits;
     }
     
+    // READ - Find credits by type and amount range, one page at a time (keyset on date_credit, id)
+    public Page<Credit> findByTypeAndAmountRange(String typeCredit, double minAmount, double maxAmount, int taillePage, String curseur) {
+        return RequetePaginee.executer(connectionDB,
+                "SELECT * FROM credits WHERE type_credit = ? AND montant_octroye BETWEEN ? AND ?",
+                stmt -> {
+                    stmt.setString(1, typeCredit);
+                    stmt.setDouble(2, minAmount);
+                    stmt.setDouble(3, maxAmount);
+                    return 3;
+                },
+                "date_credit", RequetePaginee.TypeCle.DATE, "id", taillePage, curseur, this::mapResultSetToCredit);
+    }
+    
+    // READ - Nombre et montants des crédits par décision, en une requête
+    public List<AgregatDecision> agregerParDecision() {
+        return agregerParDecision(null);
+    }
+    
+    /**
+     * Nombre et montants des crédits par décision, lus dans un instantané cohérent
+     * L'instantané est ouvert, et bascule exécutée, pendant qu'aucun commit n'est en cours
+     * (UnitOfWork.sansCommitEnCours): un commit est soit compté par la requête et publié avant
+     * la bascule, soit absent de la requête et publié après.
+     * @param bascule Action exécutée au moment de l'instantané (null: aucune)
+     * @return Un agrégat par décision présente
+     * @throws IllegalStateException depuis une transaction en cours
+     */
+    public List<AgregatDecision> agregerParDecision(Runnable bascule) {
+        List<AgregatDecision> agregats = new ArrayList<>();
+        String sql = "SELECT decision, COUNT(*) AS nombre, " +
+                    "COALESCE(SUM(montant_demande), 0) AS montant_demande, " +
+                    "COALESCE(SUM(montant_octroye), 0) AS montant_octroye " +
+                    "FROM credits GROUP BY decision";
+        
+        try (Connection conn = connectionDB.getConnection()) {
+            int isolation = conn.getTransactionIsolation();
+            try (Statement debut = conn.createStatement()) {
+                // L'instantané n'est figé à l'ouverture qu'en REPEATABLE READ
+                conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                conn.setAutoCommit(false);
+                UnitOfWork.sansCommitEnCours(() -> {
+                    debut.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT");
+                    if (bascule != null) {
+                        bascule.run();
+                    }
+                    return null;
+                });
+                
+                try (PreparedStatement stmt = conn.prepareStatement(sql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        agregats.add(new AgregatDecision(
+                            Decision.valueOf(rs.getString("decision")),
+                            rs.getLong("nombre"),
+                            rs.getDouble("montant_demande"),
+                            rs.getDouble("montant_octroye")
+                        ));
+                    }
+                }
+                conn.commit();
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+                conn.setTransactionIsolation(isolation);
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Agrégation des crédits par décision impossible", e);
+        }
+        
+        return agregats;
+    }
+    
     // READ - Statistics: Approval rate by contract type
+    /**
+     * @deprecated Lignes non typées; utiliser AgregationRepository.agreger(
+     *     RequeteAgregation.sur(Source.CREDITS).grouperPar(Dimension.CONTRAT, Dimension.DECISION).mesurer(Mesure.nombre()))
+     */
+    @Deprecated
     public List<Object[]> getApprovalRateByContractType() {
         List<Object[]> stats = new ArrayList<>();
         String sql = "SELECT e.type_contrat, " +
@@ -216,55 +530,155 @@ public class CreditRepository {
     // UPDATE
     public boolean update(Credit credit) {
         String sql = "UPDATE credits SET montant_demande = ?, montant_octroye = ?, taux_interet = ?, duree_mois = ?, type_credit = ?, decision = ? WHERE id = ?";
+        // État précédent, relu seulement si quelqu'un écoute les changements
+        Optional<Credit> ancien = evenements.aDesAbonnes() ? findById(credit.getId()) : Optional.empty();
         
-        try (Connection conn = connectionDB.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return ecrire(() -> {
+            try (Connection conn = connectionDB.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setDouble(1, credit.getMontantDemande());
-            stmt.setDouble(2, credit.getMontantOctroye());
-            stmt.setDouble(3, credit.getTauxInteret());
-            stmt.setInt(4, credit.getDureeMois());
-            stmt.setString(5, credit.getTypeCredit().toString());
-            stmt.setString(6, credit.getDecision().toString());
-            stmt.setString(7, credit.getId().toString());
+                stmt.setDouble(1, credit.getMontantDemande());
+                stmt.setDouble(2, credit.getMontantOctroye());
+                stmt.setDouble(3, credit.getTauxInteret());
+                stmt.setInt(4, credit.getDureeMois());
+                stmt.setString(5, credit.getTypeCredit().toString());
+                stmt.setString(6, credit.getDecision().toString());
+                UuidCodec.bind(stmt, 7, credit.getId());
             
-            return stmt.executeUpdate() > 0;
+                if (stmt.executeUpdate() > 0) {
+                    ancien.ifPresent(a -> evenements.publierModification(a, credit));
+                    return true;
+                }
+                return false;
             
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
+            }
+        });
     }
     
     // DELETE
     public boolean delete(UUID id) {
         String sql = "DELETE FROM credits WHERE id = ?";
+        // Le client du crédit est nécessaire pour mettre à jour l'index des clients existants
+        Optional<Credit> ancien = findById(id);
         
-        try (Connection conn = connectionDB.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return ecrire(() -> {
+            try (Connection conn = connectionDB.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id.toString());
-            return stmt.executeUpdate() > 0;
+                UuidCodec.bind(stmt, 1, id);
+                if (stmt.executeUpdate() > 0) {
+                    // Le client a peut-être perdu son dernier crédit
+                    if (ancien.isPresent()) {
+                        UUID clientId = ancien.get().getClientId();
+                        UnitOfWork.apresCommit(() -> clientsExistants.retirerSiSansCredit(clientId));
+                    } else {
+                        UnitOfWork.apresCommit(clientsExistants::invalider);
+                    }
+                    ancien.ifPresent(evenements::publierSuppression);
+                    return true;
+                }
+                return false;
             
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
-        }
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
+            }
+        });
     }
     
     // Helper method to map ResultSet to Credit
+    private CreditClient mapResultSetToCreditClient(ResultSet rs) throws SQLException {
+        return new CreditClient(mapResultSetToCredit(rs), rs.getString("ville"), rs.getString("secteur"));
+    }
+    
     private Credit mapResultSetToCredit(ResultSet rs) throws SQLException {
         Credit credit = new Credit();
-        // credit.setId(UUID.fromString(rs.getString("id")));
-        // credit.setDateCredit(rs.getDate("date_credit"));
-        // credit.setMontantDemande(rs.getDouble("montant_demande"));
-        // credit.setMontantOctroye(rs.getDouble("montant_octroye"));
-        // credit.setTauxInteret(rs.getDouble("taux_interet"));
-        // credit.setDureeMois(rs.getInt("duree_mois"));
-        // credit.setTypeCredit(rs.getString("type_credit"));
-        // credit.setDecision(rs.getString("decision"));
-        
-        // Note: Vous devrez ajuster selon vos getters/setters réels
+        credit.setId(UuidCodec.read(rs, "id"));
+        credit.setClientId(UuidCodec.read(rs, "client_id"));
+        credit.setDateCredit(rs.getDate("date_credit"));
+        credit.setMontantDemande(rs.getDouble("montant_demande"));
+        credit.setMontantOctroye(rs.getDouble("montant_octroye"));
+        credit.setTauxInteret(rs.getDouble("taux_interet"));
+        credit.setDureeMois(rs.getInt("duree_mois"));
+        credit.setTypeCredit(TypeCredit.valueOf(rs.getString("type_credit")));
+        credit.setDecision(Decision.valueOf(rs.getString("decision")));
+        
         return credit;
     }
+    
+    public static class AgregatDecision {
+        private Decision decision;
+        private long nombre;
+        private double montantDemande;
+        private double montantOctroye;
+        
+        public AgregatDecision(Decision decision, long nombre, double montantDemande, double montantOctroye) {
+            this.decision = decision;
+            this.nombre = nombre;
+            this.montantDemande = montantDemande;
+            this.montantOctroye = montantOctroye;
+        }
+        
+        // Getters
+        public Decision getDecision() { return decision; }
+        public long getNombre() { return nombre; }
+        public double getMontantDemande() { return montantDemande; }
+        public double getMontantOctroye() { return montantOctroye; }
+    }
+    
+    public static class CreditClient {
+        private Credit credit;
+        private String ville;
+        private String secteur;
+        
+        public CreditClient(Credit credit, String ville, String secteur) {
+            this.credit = credit;
+            this.ville = ville;
+            this.secteur = secteur;
+        }
+        
+        // Getters
+        public Credit getCredit() { return credit; }
+        public String getVille() { return ville; }
+        public String getSecteur() { return secteur; }
+    }
+    
+    public static class PerformanceCredit {
+        private Credit credit;
+        private String nom;
+        private String prenom;
+        private int nombreEcheances;
+        private int echeancesPayees;
+        private int echeancesRetard;
+        private double moyenneJoursRetard;
+        private double totalPaye;
+        private double totalDu;
+        
+        public PerformanceCredit(Credit credit, String nom, String prenom, int nombreEcheances, int echeancesPayees,
+                                 int echeancesRetard, double moyenneJoursRetard, double totalPaye, double totalDu) {
+            this.credit = credit;
+            this.nom = nom;
+            this.prenom = prenom;
+            this.nombreEcheances = nombreEcheances;
+            this.echeancesPayees = echeancesPayees;
+            this.echeancesRetard = echeancesRetard;
+            this.moyenneJoursRetard = moyenneJoursRetard;
+            this.totalPaye = totalPaye;
+            this.totalDu = totalDu;
+        }
+        
+        // Getters
+        public Credit getCredit() { return credit; }
+        public String getNom() { return nom; }
+        public String getPrenom() { return prenom; }
+        public int getNombreEcheances() { return nombreEcheances; }
+        public int getEcheancesPayees() { return echeancesPayees; }
+        public int getEcheancesRetard() { return echeancesRetard; }
+        public double getMoyenneJoursRetard() { return moyenneJoursRetard; }
+        public double getTotalPaye() { return totalPaye; }
+        public double getTotalDu() { return totalDu; }
+    }
 }
@@ -1,17 +1,43 @@
 package com.microfinance.scoring.repository;
 
 import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UuidCodec;
 import com.microfinance.scoring.model.Echeance;
+import com.microfinance.scoring.model.PlanRemboursement;
 import com.microfinance.scoring.model.enums.StatutPaiement;
+import com.microfinance.scoring.model.enums.TypeCredit;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class EcheanceRepository {
     
+    private static final String SQL_INSERT = "INSERT INTO echeances (id, date_echeance, mensualite, date_paiement, statut_paiement, credit_id, numero_echeance, montant_capital, montant_interet) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    // Échéances avec leur crédit et la date du premier incident de défaut, le cas échéant
+    private static final String SQL_HISTORIQUE = "SELECT ech.credit_id, c.date_credit, c.type_credit, c.duree_mois, " +
+                    "ech.numero_echeance, ech.date_echeance, ech.date_paiement, " +
+                    "(SELECT MIN(i.date_incident) FROM incidents i WHERE i.echeance_id = ech.id " +
+                    "AND i.type_incident = 'DEFAUT_PAIEMENT') AS date_defaut " +
+                    "FROM echeances ech JOIN credits c ON c.id = ech.credit_id";
+    
+    private static final String SQL_INSERT_PLAN = "INSERT INTO plans_remboursement (credit_id, montant, taux_interet, duree_mois, date_debut) VALUES (?, ?, ?, ?, ?)";
+    
+    /**
+     * COMPLET: chaque échéance est une ligne; VIRTUEL: seuls les paramètres du plan sont stockés,
+     * plus les échéances porteuses d'information (paiements, retards, exceptions)
+     */
+    public enum ModeStockage { COMPLET, VIRTUEL }
+    
     private ConnectionDB connectionDB;
+    private int tailleLot = Integer.getInteger("microfinance.batch.size", 500);
+    private ModeStockage modeStockage = ModeStockage.valueOf(System.getProperty("microfinance.echeances.stockage", "COMPLET"));
     
     public EcheanceRepository() {
         this.connectionDB = ConnectionDB.getInstance();
@@ -19,18 +45,10 @@ public class EcheanceRepository {
     
     // CREATE
     public boolean save(Echeance echeance) {
-        String sql = "INSERT INTO echeances (id, date_echeance, mensualite, date_paiement, statut_paiement, credit_id) VALUES (?, ?, ?, ?, ?, ?)";
-        
         try (Connection connection = connectionDB.getConnection();
-             PreparedStatement stmt = connection.prepareStatement(sql)) {
+             PreparedStatement stmt = connection.prepareStatement(SQL_INSERT)) {
             
-            stmt.setString(1, echeance.getId().toString());
-            stmt.setDate(2, new java.sql.Date(echeance.getDateEcheance().getTime()));
-            stmt.setDouble(3, echeance.getMensualite());
-            stmt.setDate(4, echeance.getDatePaiement() != null ? 
-                        new java.sql.Date(echeance.getDatePaiement().getTime()) : null);
-            stmt.setString(5, echeance.getStatutPaiement());
-
+            bindInsert(stmt, echeance);
             return stmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
@@ -39,6 +57,140 @@ public class EcheanceRepository {
         }
     }
     
+    // CREATE - Insertion par lots d'un échéancier complet, en une seule transaction
+    public boolean saveAll(List<Echeance> echeances) {
+        if (echeances.isEmpty()) {
+            return true;
+        }
+        
+        try (Connection conn = connectionDB.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(SQL_INSERT)) {
+                
+                int enAttente = 0;
+                for (Echeance echeance : echeances) {
+                    bindInsert(stmt, echeance);
+                    stmt.addBatch();
+                    
+                    if (++enAttente == tailleLot) {
+                        stmt.executeBatch();
+                        enAttente = 0;
+                    }
+                }
+                if (enAttente > 0) {
+                    stmt.executeBatch();
+                }
+                
+                conn.commit();
+                return true;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    // CREATE - Persister l'échéancier d'un crédit selon le mode de stockage
+    public boolean saveEcheancier(PlanRemboursement plan, List<Echeance> echeances) {
+        if (modeStockage == ModeStockage.VIRTUEL) {
+            return savePlans(Collections.singletonList(plan));
+        }
+        return saveAll(echeances);
+    }
+    
+    // CREATE - Insertion par lots des paramètres de plusieurs échéanciers (mode VIRTUEL)
+    public boolean savePlans(List<PlanRemboursement> plans) {
+        if (plans.isEmpty()) {
+            return true;
+        }
+        
+        try (Connection conn = connectionDB.getConnection()) {
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(SQL_INSERT_PLAN)) {
+                
+                int enAttente = 0;
+                for (PlanRemboursement plan : plans) {
+                    UuidCodec.bind(stmt, 1, plan.getCreditId());
+                    stmt.setDouble(2, plan.getMontant());
+                    stmt.setDouble(3, plan.getTauxInteret());
+                    stmt.setInt(4, plan.getDureeMois());
+                    stmt.setDate(5, java.sql.Date.valueOf(plan.getDateDebut()));
+                    stmt.addBatch();
+                    
+                    if (++enAttente == tailleLot) {
+                        stmt.executeBatch();
+                        enAttente = 0;
+                    }
+                }
+                if (enAttente > 0) {
+                    stmt.executeBatch();
+                }
+                
+                conn.commit();
+                return true;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    // CREATE/UPDATE - Enregistrer une échéance (paiement, retard...) qu'elle ait déjà une ligne ou non
+    public boolean enregistrer(Echeance echeance) {
+        String sql = SQL_INSERT + " ON DUPLICATE KEY UPDATE date_paiement = VALUES(date_paiement), " +
+                    "statut_paiement = VALUES(statut_paiement), mensualite = VALUES(mensualite)";
+        
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            bindInsert(stmt, echeance);
+            return stmt.executeUpdate() > 0;
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    // READ - Paramètres de l'échéancier d'un crédit stocké en mode VIRTUEL
+    public Optional<PlanRemboursement> findPlan(UUID creditId) {
+        String sql = "SELECT * FROM plans_remboursement WHERE credit_id = ?";
+        
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            UuidCodec.bind(stmt, 1, creditId);
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                return Optional.of(new PlanRemboursement(
+                    UuidCodec.read(rs, "credit_id"),
+                    rs.getDouble("montant"),
+                    rs.getDouble("taux_interet"),
+                    rs.getInt("duree_mois"),
+                    rs.getDate("date_debut").toLocalDate()
+                ));
+            }
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        
+        return Optional.empty();
+    }
+    
     // READ - Find by ID
     public Optional<Echeance> findById(UUID id) {
         String sql = "SELECT * FROM echeances WHERE id = ?";
@@ -46,7 +198,7 @@ public class EcheanceRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id.toString());
+            UuidCodec.bind(stmt, 1, id);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -80,6 +232,67 @@ public class EcheanceRepository {
         return echeances;
     }
     
+    // READ - Stream all echeances page by page (constant memory)
+    public Stream<Echeance> streamAll() {
+        return LecturePaginee.stream(connectionDB,
+                "SELECT * FROM echeances",
+                "id", LecturePaginee.TAILLE_PAGE_DEFAUT, this::mapResultSetToEcheance);
+    }
+    
+    // READ - Repayment history of credits originated up to a date, ordered by credit (one streamed query)
+    public long parcourirHistorique(LocalDate origineMax, Consumer<HistoriqueEcheance> consommateur) {
+        String sql = SQL_HISTORIQUE + " WHERE c.date_credit <= ? ORDER BY ech.credit_id, ech.numero_echeance";
+        return parcourirHistorique(sql, consommateur, java.sql.Date.valueOf(origineMax));
+    }
+    
+    // READ - Same, restricted to credits still running in a month: an installment due in the month
+    // or one still unpaid when the month starts
+    public long parcourirHistoriqueActifs(LocalDate debutMois, LocalDate finMois,
+                                          Consumer<HistoriqueEcheance> consommateur) {
+        String sql = SQL_HISTORIQUE + " WHERE c.date_credit <= ? AND ech.credit_id IN (" +
+                    "SELECT a.credit_id FROM echeances a WHERE a.date_echeance BETWEEN ? AND ? " +
+                    "OR (a.date_echeance < ? AND (a.date_paiement IS NULL OR a.date_paiement >= ?))) " +
+                    "ORDER BY ech.credit_id, ech.numero_echeance";
+        java.sql.Date debut = java.sql.Date.valueOf(debutMois);
+        java.sql.Date fin = java.sql.Date.valueOf(finMois);
+        return parcourirHistorique(sql, consommateur, fin, debut, fin, debut, debut);
+    }
+    
+    private long parcourirHistorique(String sql, Consumer<HistoriqueEcheance> consommateur, java.sql.Date... parametres) {
+        long lues = 0;
+        
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            for (int i = 0; i < parametres.length; i++) {
+                stmt.setDate(i + 1, parametres[i]);
+            }
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    java.sql.Date paiement = rs.getDate("date_paiement");
+                    java.sql.Date defaut = rs.getDate("date_defaut");
+                    consommateur.accept(new HistoriqueEcheance(
+                        UuidCodec.read(rs, "credit_id"),
+                        rs.getDate("date_credit").toLocalDate(),
+                        TypeCredit.valueOf(rs.getString("type_credit")),
+                        rs.getInt("duree_mois"),
+                        rs.getInt("numero_echeance"),
+                        rs.getDate("date_echeance").toLocalDate(),
+                        paiement != null ? paiement.toLocalDate() : null,
+                        defaut != null ? defaut.toLocalDate() : null
+                    ));
+                    lues++;
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new RuntimeException("Lecture de l'historique des échéances interrompue après " + lues + " lignes", e);
+        }
+        
+        return lues;
+    }
+    
     // READ - Find by Credit ID
     public List<Echeance> findByCreditId(UUID creditId) {
         List<Echeance> echeances = new ArrayList<>();
@@ -88,7 +301,7 @@ public class EcheanceRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, creditId.toString());
+            UuidCodec.bind(stmt, 1, creditId);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -104,6 +317,8 @@ public class EcheanceRepository {
     
     // READ - Find overdue payments
     public List<Echeance> findOverduePayments() {
+        // En mode VIRTUEL, une échéance impayée n'a pas de ligne: elle manquerait au résultat
+        exigerEcheanciersComplets("findOverduePayments");
         List<Echeance> echeances = new ArrayList<>();
         String sql = "SELECT * FROM echeances WHERE date_echeance < CURRENT_DATE AND statut_paiement IN ('ENRETARD', 'IMPAYENONREGLE')";
         
@@ -134,7 +349,7 @@ public class EcheanceRepository {
             stmt.setDate(3, echeance.getDatePaiement() != null ? 
                         new java.sql.Date(echeance.getDatePaiement().getTime()) : null);
             stmt.setString(4, echeance.getStatutPaiement());
-            stmt.setString(5, echeance.getId().toString());
+            UuidCodec.bind(stmt, 5, echeance.getId());
             
             return stmt.executeUpdate() > 0;
             
@@ -151,7 +366,7 @@ public class EcheanceRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id.toString());
+            UuidCodec.bind(stmt, 1, id);
             return stmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
@@ -160,15 +375,115 @@ public class EcheanceRepository {
         }
     }
     
+    /**
+     * Les lectures qui agrègent la table echeances supposent des échéanciers complets: en mode
+     * VIRTUEL, seules les échéances porteuses d'information y figurent et le résultat serait faussé.
+     * @param lecture Nom de la lecture, pour le message d'erreur
+     * @throws IllegalStateException si le mode courant est VIRTUEL ou si des plans virtuels existent en base
+     */
+    public void exigerEcheanciersComplets(String lecture) {
+        if (modeStockage == ModeStockage.VIRTUEL || existePlansVirtuels()) {
+            throw new IllegalStateException(lecture + " requiert le mode de stockage COMPLET: "
+                    + "des échéanciers de plans_remboursement ne sont pas matérialisés dans echeances");
+        }
+    }
+    
+    private boolean existePlansVirtuels() {
+        String sql = "SELECT 1 FROM plans_remboursement LIMIT 1";
+        
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            return rs.next();
+            
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+    
+    public ModeStockage getModeStockage() {
+        return modeStockage;
+    }
+    
+    public void setModeStockage(ModeStockage modeStockage) {
+        this.modeStockage = modeStockage;
+    }
+    
+    public int getTailleLot() {
+        return tailleLot;
+    }
+    
+    public void setTailleLot(int tailleLot) {
+        if (tailleLot < 1) {
+            throw new IllegalArgumentException("La taille de lot doit être positive");
+        }
+        this.tailleLot = tailleLot;
+    }
+    
+    // Helper method to bind an Echeance to the INSERT statement
+    private void bindInsert(PreparedStatement stmt, Echeance echeance) throws SQLException {
+        UuidCodec.bind(stmt, 1, echeance.getId());
+        stmt.setDate(2, new java.sql.Date(echeance.getDateEcheance().getTime()));
+        stmt.setDouble(3, echeance.getMensualite());
+        stmt.setDate(4, echeance.getDatePaiement() != null ? 
+                    new java.sql.Date(echeance.getDatePaiement().getTime()) : null);
+        stmt.setString(5, echeance.getStatutPaiement());
+        UuidCodec.bind(stmt, 6, echeance.getCreditId());
+        stmt.setInt(7, echeance.getNumero());
+        stmt.setDouble(8, echeance.getMontantCapital());
+        stmt.setDouble(9, echeance.getMontantInteret());
+    }
+    
     // Helper method to map ResultSet to Echeance
     private Echeance mapResultSetToEcheance(ResultSet rs) throws SQLException {
         Echeance echeance = new Echeance();
         
+        echeance.setId(UuidCodec.read(rs, "id"));
         echeance.setDateEcheance(rs.getDate("date_echeance"));
         echeance.setMensualite(rs.getDouble("mensualite"));
         echeance.setDatePaiement(rs.getDate("date_paiement"));
         echeance.setStatutPaiement(rs.getString("statut_paiement"));
+        echeance.setCreditId(UuidCodec.read(rs, "credit_id"));
+        echeance.setNumero(rs.getInt("numero_echeance"));
+        echeance.setMontantCapital(rs.getDouble("montant_capital"));
+        echeance.setMontantInteret(rs.getDouble("montant_interet"));
         
         return echeance;
     }
+    
+    public static class HistoriqueEcheance {
+        private UUID creditId;
+        private LocalDate dateCredit;
+        private TypeCredit typeCredit;
+        private int dureeMois;
+        private int numero;
+        private LocalDate dateEcheance;
+        private LocalDate datePaiement;
+        private LocalDate dateDefaut;
+        
+        public HistoriqueEcheance(UUID creditId, LocalDate dateCredit, TypeCredit typeCredit, int dureeMois,
+                                  int numero, LocalDate dateEcheance, LocalDate datePaiement,
+                                  LocalDate dateDefaut) {
+            this.creditId = creditId;
+            this.dateCredit = dateCredit;
+            this.typeCredit = typeCredit;
+            this.dureeMois = dureeMois;
+            this.numero = numero;
+            this.dateEcheance = dateEcheance;
+            this.datePaiement = datePaiement;
+            this.dateDefaut = dateDefaut;
+        }
+        
+        // Getters
+        public UUID getCreditId() { return creditId; }
+        public LocalDate getDateCredit() { return dateCredit; }
+        public TypeCredit getTypeCredit() { return typeCredit; }
+        public int getDureeMois() { return dureeMois; }
+        public int getNumero() { return numero; }
+        public LocalDate getDateEcheance() { return dateEcheance; }
+        public LocalDate getDatePaiement() { return datePaiement; }
+        public LocalDate getDateDefaut() { return dateDefaut; }
+    }
 }
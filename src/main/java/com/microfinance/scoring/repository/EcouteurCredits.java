@@ -0,0 +1,25 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.model.Credit;
+
+/**
+ * Abonné aux changements de la table credits, notifié après commit
+ */
+public interface EcouteurCredits {
+
+    default void creditCree(Credit credit) {
+    }
+
+    /**
+     * @param ancien État avant modification
+     * @param nouveau État après modification
+     */
+    default void creditModifie(Credit ancien, Credit nouveau) {
+    }
+
+    /**
+     * @param ancien État du crédit supprimé
+     */
+    default void creditSupprime(Credit ancien) {
+    }
+}
@@ -1,6 +1,8 @@
 package com.microfinance.scoring.repository;
 
 import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UnitOfWork;
+import com.microfinance.scoring.config.UuidCodec;
 import com.microfinance.scoring.model.Employe;
 import com.microfinance.scoring.model.enums.TypeContrat;
 import com.microfinance.scoring.model.enums.Secteur;
@@ -9,13 +11,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class EmployeRepository {
     
     private ConnectionDB connectionDB;
+    private PersonneCache cache;
     
     public EmployeRepository() {
         this.connectionDB = ConnectionDB.getInstance();
+        this.cache = PersonneCache.getInstance();
     }
     
     // CREATE
@@ -29,7 +34,7 @@ public class EmployeRepository {
             try (PreparedStatement stmtPersonne = conn.prepareStatement(sqlPersonne);
                  PreparedStatement stmtEmploye = conn.prepareStatement(sqlEmploye)) {
                 
-                stmtPersonne.setString(1, UUID.randomUUID().toString());
+                UuidCodec.bind(stmtPersonne, 1, employe.getId());
                 stmtPersonne.setString(2, employe.getNom());
                 stmtPersonne.setString(3, employe.getPrenom());
                 stmtPersonne.setDate(4, new java.sql.Date(employe.getDateNaissance().getTime()));
@@ -43,7 +48,7 @@ public class EmployeRepository {
                 
                 stmtPersonne.executeUpdate();
                 
-                stmtEmploye.setString(1, employe.getId().toString());
+                UuidCodec.bind(stmtEmploye, 1, employe.getId());
                 stmtEmploye.setDouble(2, employe.getSalaire());
                 stmtEmploye.setInt(3, employe.getAnciennete());
                 stmtEmploye.setString(4, employe.getPoste());
@@ -68,6 +73,12 @@ public class EmployeRepository {
     
     // READ - Find by ID
     public Optional<Employe> findById(UUID id) {
+        return cache.obtenir(id, this::chargerParId)
+                .filter(Employe.class::isInstance)
+                .map(Employe.class::cast);
+    }
+    
+    private Optional<Employe> chargerParId(UUID id) {
         String sql = "SELECT p.*, e.salaire, e.anciennete, e.poste, e.type_contrat, e.secteur " +
                     "FROM personnes p " +
                     "JOIN employes e ON p.id = e.personne_id " +
@@ -76,7 +87,7 @@ public class EmployeRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id.toString());
+            UuidCodec.bind(stmt, 1, id);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -113,6 +124,15 @@ public class EmployeRepository {
         return employes;
     }
     
+    // READ - Stream all employes page by page (constant memory)
+    public Stream<Employe> streamAll() {
+        return LecturePaginee.stream(connectionDB,
+                "SELECT p.*, e.salaire, e.anciennete, e.poste, e.type_contrat, e.secteur " +
+                    "FROM personnes p " +
+                    "JOIN employes e ON p.id = e.personne_id",
+                "p.id", LecturePaginee.TAILLE_PAGE_DEFAUT, EmployeRepository::mapResultSetToEmploye);
+    }
+    
     // READ - Find employees eligible for immediate credit (score > 70, age 25-50, married, CDI, salary > 4000)
     public List<Employe> findEligibleForImmediateCreditEmployees() {
         List<Employe> employes = new ArrayList<>();
@@ -161,7 +181,7 @@ public class EmployeRepository {
                 stmtPersonne.setString(6, employe.getPlacement());
                 stmtPersonne.setString(7, employe.getSituationFamiliale());
                 stmtPersonne.setInt(8, employe.getScore());
-                stmtPersonne.setString(9, employe.getId().toString());
+                UuidCodec.bind(stmtPersonne, 9, employe.getId());
                 
                 stmtPersonne.executeUpdate();
                 
@@ -171,11 +191,13 @@ public class EmployeRepository {
                 stmtEmploye.setString(3, employe.getPoste());
                 stmtEmploye.setString(4, employe.getTypeContrat());
                 stmtEmploye.setString(5, employe.getSecteur());
-                stmtEmploye.setString(6, employe.getId().toString());
+                UuidCodec.bind(stmtEmploye, 6, employe.getId());
                 
                 stmtEmploye.executeUpdate();
                 
                 conn.commit();
+                UUID employeId = employe.getId();
+                UnitOfWork.apresCommit(() -> cache.invalider(employeId));
                 return true;
                 
             } catch (SQLException e) {
@@ -201,14 +223,15 @@ public class EmployeRepository {
                  PreparedStatement stmtPersonne = conn.prepareStatement(sqlPersonne)) {
                 
                 // Delete from employes first (foreign key constraint)
-                stmtEmploye.setString(1, id.toString());
+                UuidCodec.bind(stmtEmploye, 1, id);
                 stmtEmploye.executeUpdate();
                 
                 // Delete from personnes
-                stmtPersonne.setString(1, id.toString());
+                UuidCodec.bind(stmtPersonne, 1, id);
                 stmtPersonne.executeUpdate();
                 
                 conn.commit();
+                UnitOfWork.apresCommit(() -> cache.invalider(id));
                 return true;
                 
             } catch (SQLException e) {
@@ -223,11 +246,11 @@ public class EmployeRepository {
     }
     
     // Helper method to map ResultSet to Employe
-    private Employe mapResultSetToEmploye(ResultSet rs) throws SQLException {
+    static Employe mapResultSetToEmploye(ResultSet rs) throws SQLException {
         Employe employe = new Employe();
         
         // Set Personne fields
-        employe.setId(UUID.fromString(rs.getString("id")));
+        employe.setId(UuidCodec.read(rs, "id"));
         employe.setNom(rs.getString("nom"));
         employe.setPrenom(rs.getString("prenom"));
         employe.setDateNaissance(rs.getDate("date_naissance"));
@@ -0,0 +1,74 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.config.UnitOfWork;
+import com.microfinance.scoring.model.Credit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Registre des abonnés aux changements de crédits (Singleton)
+ * CreditRepository publie chaque création, modification et suppression; la notification est
+ * différée au commit de la transaction en cours, une écriture annulée n'est donc jamais publiée.
+ */
+public class EvenementsCredits {
+
+    private static EvenementsCredits instance = null;
+
+    private final List<EcouteurCredits> ecouteurs = new CopyOnWriteArrayList<>();
+
+    private EvenementsCredits() {
+    }
+
+    public static synchronized EvenementsCredits getInstance() {
+        if (instance == null) {
+            instance = new EvenementsCredits();
+        }
+        return instance;
+    }
+
+    public void abonner(EcouteurCredits ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    public void desabonner(EcouteurCredits ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    /**
+     * true si au moins un abonné: permet d'éviter la relecture de l'état précédent sinon
+     */
+    public boolean aDesAbonnes() {
+        return !ecouteurs.isEmpty();
+    }
+
+    void publierCreation(Credit credit) {
+        if (aDesAbonnes()) {
+            UnitOfWork.apresCommit(() -> notifier(e -> e.creditCree(credit)));
+        }
+    }
+
+    void publierModification(Credit ancien, Credit nouveau) {
+        if (aDesAbonnes()) {
+            UnitOfWork.apresCommit(() -> notifier(e -> e.creditModifie(ancien, nouveau)));
+        }
+    }
+
+    void publierSuppression(Credit ancien) {
+        if (aDesAbonnes()) {
+            UnitOfWork.apresCommit(() -> notifier(e -> e.creditSupprime(ancien)));
+        }
+    }
+
+    // L'écriture est validée: l'échec d'un abonné ne doit ni priver les suivants de l'événement,
+    // ni remonter à l'appelant du repository
+    private void notifier(Consumer<EcouteurCredits> notification) {
+        for (EcouteurCredits ecouteur : ecouteurs) {
+            try {
+                notification.accept(ecouteur);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
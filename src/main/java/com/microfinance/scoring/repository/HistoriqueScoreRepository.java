@@ -0,0 +1,76 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UuidCodec;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Repository pour l'historique des scores clients (table historique_scores)
+ */
+public class HistoriqueScoreRepository {
+
+    private ConnectionDB connectionDB;
+
+    public HistoriqueScoreRepository() {
+        this.connectionDB = ConnectionDB.getInstance();
+    }
+
+    // CREATE - Tracer une évolution de score, éventuellement liée à un crédit
+    public boolean save(UUID clientId, int ancienScore, int nouveauScore, String motif, UUID creditId) {
+        String sql = "INSERT INTO historique_scores (id, client_id, ancien_score, nouveau_score, motif, credit_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            UuidCodec.bind(stmt, 1, UuidCodec.nouvelId());
+            UuidCodec.bind(stmt, 2, clientId);
+            stmt.setInt(3, ancienScore);
+            stmt.setInt(4, nouveauScore);
+            stmt.setString(5, motif);
+            UuidCodec.bind(stmt, 6, creditId);
+
+            return stmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // CREATE - Tracer en un seul lot les évolutions de score des nombre premiers clients
+    public boolean saveAll(UUID[] clientIds, int[] anciensScores, int[] nouveauxScores, int nombre, String motif) {
+        String[] motifs = new String[nombre];
+        Arrays.fill(motifs, motif);
+        return saveAll(clientIds, anciensScores, nouveauxScores, motifs, null, nombre);
+    }
+
+    // CREATE - Idem, avec un motif et un crédit (éventuellement null) par ligne
+    public boolean saveAll(UUID[] clientIds, int[] anciensScores, int[] nouveauxScores, String[] motifs, UUID[] creditIds, int nombre) {
+        if (nombre == 0) {
+            return true;
+        }
+        String sql = "INSERT INTO historique_scores (id, client_id, ancien_score, nouveau_score, motif, credit_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < nombre; i++) {
+                UuidCodec.bind(stmt, 1, UuidCodec.nouvelId());
+                UuidCodec.bind(stmt, 2, clientIds[i]);
+                stmt.setInt(3, anciensScores[i]);
+                stmt.setInt(4, nouveauxScores[i]);
+                stmt.setString(5, motifs[i]);
+                UuidCodec.bind(stmt, 6, creditIds != null ? creditIds[i] : null);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            return true;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+}
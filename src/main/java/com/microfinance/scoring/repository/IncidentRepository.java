@@ -1,16 +1,30 @@
 package com.microfinance.scoring.repository;
 
 import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UuidCodec;
 import com.microfinance.scoring.model.Incident;
 import com.microfinance.scoring.model.enums.TypeIncident;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class IncidentRepository {
     
+    // Nombre maximal d'identifiants par clause IN
+    private static final int TAILLE_LOT_IN = 500;
+    
+    // Incidents "récents" au sens du scoring: source commune au scoring en ligne et au recalcul nocturne
+    private static final String SQL_INCIDENTS_RECENTS = "FROM incidents i " +
+            "JOIN echeances e ON i.echeance_id = e.id " +
+            "JOIN credits c ON e.credit_id = c.id " +
+            "WHERE i.date_incident >= DATE_SUB(CURRENT_DATE, INTERVAL 6 MONTH) ";
+    
     private ConnectionDB connectionDB;
     
     public IncidentRepository() {
@@ -24,11 +38,11 @@ public class IncidentRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, incident.getId().toString());
+            UuidCodec.bind(stmt, 1, incident.getId());
             stmt.setDate(2, new java.sql.Date(incident.getDateIncident().getTime()));
             stmt.setInt(3, incident.getScore());
             stmt.setString(4, incident.getTypeIncident());
-            // stmt.setString(5, incident.getEcheanceId().toString()); // À ajouter selon votre modèle
+            // UuidCodec.bind(stmt, 5, incident.getEcheanceId()); // À ajouter selon votre modèle
             
             return stmt.executeUpdate() > 0;
             
@@ -45,7 +59,7 @@ public class IncidentRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id.toString());
+            UuidCodec.bind(stmt, 1, id);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -79,6 +93,20 @@ public class IncidentRepository {
         return incidents;
     }
     
+    // READ - Stream all incidents page by page (constant memory)
+    public Stream<Incident> streamAll() {
+        return LecturePaginee.stream(connectionDB,
+                "SELECT * FROM incidents",
+                "id", LecturePaginee.TAILLE_PAGE_DEFAUT, this::mapResultSetToIncident);
+    }
+    
+    // READ - Stream the credit id of every incident, page by page (constant memory)
+    public Stream<UUID> streamCreditIds() {
+        return LecturePaginee.stream(connectionDB,
+                "SELECT i.id, ech.credit_id FROM incidents i JOIN echeances ech ON ech.id = i.echeance_id",
+                "i.id", LecturePaginee.TAILLE_PAGE_DEFAUT, rs -> UuidCodec.read(rs, "credit_id"));
+    }
+    
     // READ - Find by Echeance ID
     public List<Incident> findByEcheanceId(UUID echeanceId) {
         List<Incident> incidents = new ArrayList<>();
@@ -87,7 +115,7 @@ public class IncidentRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, echeanceId.toString());
+            UuidCodec.bind(stmt, 1, echeanceId);
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -121,6 +149,60 @@ public class IncidentRepository {
         return incidents;
     }
     
+    // READ - Le client a-t-il eu un incident dans les 6 derniers mois (même définition que countRecentByClientIds)
+    public boolean hasRecentByClientId(UUID clientId) {
+        String sql = "SELECT EXISTS(SELECT 1 " + SQL_INCIDENTS_RECENTS + "AND c.client_id = ?)";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            UuidCodec.bind(stmt, 1, clientId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+
+        } catch (SQLException e) {
+            // Un score calculé sur "aucun incident" par défaut serait faux: ne pas masquer l'erreur
+            throw new RuntimeException("Lecture des incidents récents du client " + clientId + " impossible", e);
+        }
+    }
+
+    // READ - Nombre d'incidents des 6 derniers mois par client, pour un ensemble de clients
+    public Map<UUID, Integer> countRecentByClientIds(Collection<UUID> clientIds) {
+        Map<UUID, Integer> nombres = new HashMap<>();
+        if (clientIds.isEmpty()) {
+            return nombres;
+        }
+
+        List<UUID> liste = new ArrayList<>(clientIds);
+
+        try (Connection conn = connectionDB.getConnection()) {
+
+            for (int debut = 0; debut < liste.size(); debut += TAILLE_LOT_IN) {
+                List<UUID> lot = liste.subList(debut, Math.min(debut + TAILLE_LOT_IN, liste.size()));
+                String sql = "SELECT c.client_id, COUNT(*) AS nombre " + SQL_INCIDENTS_RECENTS +
+                            "AND c.client_id IN (" + PersonneRepository.placeholders(PersonneRepository.tailleIn(lot.size())) + ") " +
+                            "GROUP BY c.client_id";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    PersonneRepository.bindIn(stmt, 1, lot);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            nombres.put(UuidCodec.read(rs, "client_id"), rs.getInt("nombre"));
+                        }
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            // Un résultat partiel ferait passer des clients pour exempts d'incident: échouer
+            throw new RuntimeException("Lecture des incidents récents de " + liste.size() + " clients impossible", e);
+        }
+
+        return nombres;
+    }
+    
     // READ - Find incidents by type
     public List<Incident> findByType(String typeIncident) {
         List<Incident> incidents = new ArrayList<>();
@@ -143,6 +225,17 @@ public class IncidentRepository {
         return incidents;
     }
     
+    // READ - Find incidents by type, one page at a time (keyset on date_incident, id)
+    public Page<Incident> findByType(String typeIncident, int taillePage, String curseur) {
+        return RequetePaginee.executer(connectionDB,
+                "SELECT * FROM incidents WHERE type_incident = ?",
+                stmt -> {
+                    stmt.setString(1, typeIncident);
+                    return 1;
+                },
+                "date_incident", RequetePaginee.TypeCle.DATE, "id", taillePage, curseur, this::mapResultSetToIncident);
+    }
+    
     // UPDATE
     public boolean update(Incident incident) {
         String sql = "UPDATE incidents SET date_incident = ?, score = ?, type_incident = ? WHERE id = ?";
@@ -153,7 +246,7 @@ public class IncidentRepository {
             stmt.setDate(1, new java.sql.Date(incident.getDateIncident().getTime()));
             stmt.setInt(2, incident.getScore());
             stmt.setString(3, incident.getTypeIncident());
-            stmt.setString(4, incident.getId().toString());
+            UuidCodec.bind(stmt, 4, incident.getId());
             
             return stmt.executeUpdate() > 0;
             
@@ -170,7 +263,7 @@ public class IncidentRepository {
         try (Connection conn = connectionDB.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id.toString());
+            UuidCodec.bind(stmt, 1, id);
             return stmt.executeUpdate() > 0;
             
         } catch (SQLException e) {
@@ -182,7 +275,7 @@ public class IncidentRepository {
     // Helper method to map ResultSet to Incident
     private Incident mapResultSetToIncident(ResultSet rs) throws SQLException {
         Incident incident = new Incident();
-        incident.setId(UUID.fromString(rs.getString("id")));
+        incident.setId(UuidCodec.read(rs, "id"));
         incident.setDateIncident(rs.getDate("date_incident"));
         incident.setScore(rs.getInt("score"));
         incident.setTypeIncident(rs.getString("type_incident"));
@@ -0,0 +1,109 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UuidCodec;
+import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lecture d'une table entière par pages successives (pagination keyset sur un identifiant indexé)
+ * Une page est lue en streaming (fetch size) sur une connexion empruntée puis rendue au pool:
+ * la mémoire reste bornée par la taille de page quel que soit le volume de la table.
+ */
+final class LecturePaginee<T> implements Iterator<T> {
+
+    static final int TAILLE_PAGE_DEFAUT = Integer.getInteger("microfinance.stream.pageSize", 1000);
+
+    private final ConnectionDB connectionDB;
+    private final String selectBase;
+    private final String colonneCle;
+    private final String libelleCle;
+    private final int taillePage;
+    private final RowMapper<T> mapper;
+
+    private final ArrayDeque<T> tampon;
+    private UUID derniereCle = null;
+    private boolean dernierePageLue = false;
+
+    private LecturePaginee(ConnectionDB connectionDB, String selectBase, String colonneCle, int taillePage, RowMapper<T> mapper) {
+        this.connectionDB = connectionDB;
+        this.selectBase = selectBase;
+        this.colonneCle = colonneCle;
+        this.libelleCle = colonneCle.substring(colonneCle.indexOf('.') + 1);
+        this.taillePage = taillePage;
+        this.mapper = mapper;
+        this.tampon = new ArrayDeque<>(taillePage);
+    }
+
+    /**
+     * Construire un Stream paresseux sur la requête
+     * @param selectBase SELECT ... FROM ... sans WHERE ni ORDER BY
+     * @param colonneCle Colonne UUID indexée servant de curseur (ex: "p.id")
+     * @param mapper Conversion d'une ligne en objet
+     * @return Stream à fermer après usage (try-with-resources)
+     */
+    static <T> Stream<T> stream(ConnectionDB connectionDB, String selectBase, String colonneCle, int taillePage, RowMapper<T> mapper) {
+        LecturePaginee<T> lecture = new LecturePaginee<>(connectionDB, selectBase, colonneCle, taillePage, mapper);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(lecture, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(lecture.tampon::clear);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (tampon.isEmpty() && !dernierePageLue) {
+            lirePageSuivante();
+        }
+        return !tampon.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return tampon.pollFirst();
+    }
+
+    private void lirePageSuivante() {
+        String sql = selectBase
+                + (derniereCle != null ? " WHERE " + colonneCle + " > ?" : "")
+                + " ORDER BY " + colonneCle + " LIMIT ?";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (derniereCle != null) {
+                UuidCodec.bind(stmt, index++, derniereCle);
+            }
+            stmt.setInt(index, taillePage);
+            stmt.setFetchSize(Math.min(taillePage, 500));
+
+            int lues = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    derniereCle = UuidCodec.read(rs, libelleCle);
+                    tampon.addLast(mapper.map(rs));
+                    lues++;
+                }
+            }
+            dernierePageLue = lues < taillePage;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Lecture paginée interrompue après la clé " + derniereCle, e);
+        }
+    }
+
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,26 @@
+package com.microfinance.scoring.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page de résultats d'une requête paginée par curseur (keyset)
+ * Le curseur est opaque: il se repasse tel quel pour obtenir la page suivante
+ */
+public class Page<T> {
+    private final List<T> elements;
+    private final String curseurSuivant;
+
+    public Page(List<T> elements, String curseurSuivant) {
+        this.elements = Collections.unmodifiableList(elements);
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    // Getters
+    public List<T> getElements() { return elements; }
+    public String getCurseurSuivant() { return curseurSuivant; }
+
+    public boolean aPageSuivante() {
+        return curseurSuivant != null;
+    }
+}
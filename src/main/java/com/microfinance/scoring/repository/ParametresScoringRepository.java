@@ -0,0 +1,82 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.model.ParametresScoring;
+import com.microfinance.scoring.model.enums.ComposantScoring;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Repository des paramètres de scoring (table parametres_scoring)
+ */
+public class ParametresScoringRepository {
+
+    private ConnectionDB connectionDB;
+
+    public ParametresScoringRepository() {
+        this.connectionDB = ConnectionDB.getInstance();
+    }
+
+    // READ - Charger les paramètres actifs, agrégés par composant
+    public Optional<ParametresScoring> chargerActifs() {
+        String sql = "SELECT composant, SUM(poids) AS poids, MIN(seuil_min) AS seuil_min, MAX(seuil_max) AS seuil_max, " +
+                    "MAX(date_modification) AS date_modification, COUNT(*) AS nombre " +
+                    "FROM parametres_scoring WHERE actif = TRUE GROUP BY composant";
+
+        int n = ComposantScoring.values().length;
+        double[] poids = new double[n];
+        int[] seuilsMin = new int[n];
+        int[] seuilsMax = new int[n];
+        Arrays.fill(seuilsMax, 100);
+        long version = 0;
+        int nombreLignes = 0;
+
+        try (Connection conn = connectionDB.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                int i = ComposantScoring.valueOf(rs.getString("composant")).ordinal();
+                poids[i] = rs.getDouble("poids");
+                seuilsMin[i] = rs.getInt("seuil_min");
+                seuilsMax[i] = rs.getInt("seuil_max");
+
+                Timestamp modification = rs.getTimestamp("date_modification");
+                if (modification != null) {
+                    version = Math.max(version, modification.getTime());
+                }
+                nombreLignes += rs.getInt("nombre");
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Optional.empty();
+        }
+
+        if (nombreLignes == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new ParametresScoring(poids, seuilsMin, seuilsMax, version, nombreLignes));
+    }
+
+    // READ - Signature de la table (dernière modification, nombre de lignes actives) pour détecter un changement
+    public Optional<long[]> findSignature() {
+        String sql = "SELECT MAX(date_modification) AS date_modification, SUM(actif) AS nombre FROM parametres_scoring";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                Timestamp modification = rs.getTimestamp("date_modification");
+                return Optional.of(new long[]{modification != null ? modification.getTime() : 0L, rs.getLong("nombre")});
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,191 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.model.Personne;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache read-through des clients (Singleton), partagé par les repositories de personnes
+ * Éviction LRU par taille et expiration par durée; invalidé par les mises à jour et suppressions.
+ * Les chargements concurrents d'un même client sont fusionnés en une seule requête.
+ * Le cache conserve sa propre copie et chaque appelant reçoit une copie: modifier un client lu
+ * ne modifie jamais l'entrée partagée.
+ */
+public class PersonneCache {
+
+    private static PersonneCache instance = null;
+
+    private final int tailleMax = Integer.getInteger("microfinance.cache.clients.max", 10_000);
+    private final long dureeVieMs = Long.getLong("microfinance.cache.clients.ttlMs", 300_000L);
+
+    private final LinkedHashMap<UUID, Entree> entrees = new LinkedHashMap<>(256, 0.75f, true);
+    private final ConcurrentHashMap<UUID, Chargement> chargementsEnCours = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong chargements = new AtomicLong();
+    private final AtomicLong tempsChargementTotalNs = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private PersonneCache() {
+    }
+
+    public static synchronized PersonneCache getInstance() {
+        if (instance == null) {
+            instance = new PersonneCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Lire un client depuis le cache, ou le charger une seule fois en cas d'absence
+     * @param id Identifiant du client
+     * @param chargeur Lecture en base utilisée en cas d'absence
+     * @return Copie du client trouvé, quel que soit son type
+     */
+    public Optional<Personne> obtenir(UUID id, Function<UUID, Optional<? extends Personne>> chargeur) {
+        Personne enCache = lire(id);
+        if (enCache != null) {
+            hits.incrementAndGet();
+            return Optional.of(enCache.copier());
+        }
+        misses.incrementAndGet();
+
+        Chargement nouveau = new Chargement();
+        Chargement existant = chargementsEnCours.putIfAbsent(id, nouveau);
+        if (existant != null) {
+            return existant.resultat.join().map(Personne::copier);
+        }
+
+        long debut = System.nanoTime();
+        try {
+            Optional<Personne> charge = chargeur.apply(id).map(Personne.class::cast);
+            chargements.incrementAndGet();
+            tempsChargementTotalNs.addAndGet(System.nanoTime() - debut);
+
+            // Une invalidation de ce client pendant le chargement rend la valeur lue potentiellement
+            // périmée; vérification et écriture sous le verrou de invalider()
+            if (charge.isPresent()) {
+                synchronized (entrees) {
+                    if (!nouveau.invalide) {
+                        ecrire(id, charge.get().copier());
+                    }
+                }
+            }
+            nouveau.resultat.complete(charge);
+            return charge;
+        } catch (RuntimeException e) {
+            nouveau.resultat.completeExceptionally(e);
+            throw e;
+        } finally {
+            chargementsEnCours.remove(id, nouveau);
+        }
+    }
+
+    public void invalider(UUID id) {
+        synchronized (entrees) {
+            Chargement enCours = chargementsEnCours.remove(id);
+            if (enCours != null) {
+                enCours.invalide = true;
+            }
+            entrees.remove(id);
+        }
+    }
+
+    public void vider() {
+        synchronized (entrees) {
+            for (Chargement enCours : chargementsEnCours.values()) {
+                enCours.invalide = true;
+            }
+            chargementsEnCours.clear();
+            entrees.clear();
+        }
+    }
+
+    public StatistiquesCache getStatistiques() {
+        int taille;
+        synchronized (entrees) {
+            taille = entrees.size();
+        }
+        long nbChargements = chargements.get();
+        return new StatistiquesCache(taille, hits.get(), misses.get(), nbChargements, evictions.get(),
+                nbChargements > 0 ? tempsChargementTotalNs.get() / nbChargements / 1_000_000.0 : 0);
+    }
+
+    private Personne lire(UUID id) {
+        synchronized (entrees) {
+            Entree entree = entrees.get(id);
+            if (entree == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() > entree.expiration) {
+                entrees.remove(id);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entree.personne;
+        }
+    }
+
+    // Appelé sous le verrou de entrees
+    private void ecrire(UUID id, Personne personne) {
+        entrees.put(id, new Entree(personne, System.currentTimeMillis() + dureeVieMs));
+        if (entrees.size() > tailleMax) {
+            Map.Entry<UUID, Entree> plusAncienne = entrees.entrySet().iterator().next();
+            entrees.remove(plusAncienne.getKey());
+            evictions.incrementAndGet();
+        }
+    }
+
+    // Chargement en cours d'un client; invalide est protégé par le verrou de entrees
+    private static class Chargement {
+        private final CompletableFuture<Optional<Personne>> resultat = new CompletableFuture<>();
+        private boolean invalide = false;
+    }
+
+    private static class Entree {
+        private final Personne personne;
+        private final long expiration;
+
+        private Entree(Personne personne, long expiration) {
+            this.personne = personne;
+            this.expiration = expiration;
+        }
+    }
+
+    public static class StatistiquesCache {
+        private final int taille;
+        private final long hits;
+        private final long misses;
+        private final long chargements;
+        private final long evictions;
+        private final double tempsChargementMoyenMs;
+
+        public StatistiquesCache(int taille, long hits, long misses, long chargements, long evictions, double tempsChargementMoyenMs) {
+            this.taille = taille;
+            this.hits = hits;
+            this.misses = misses;
+            this.chargements = chargements;
+            this.evictions = evictions;
+            this.tempsChargementMoyenMs = tempsChargementMoyenMs;
+        }
+
+        // Getters
+        public int getTaille() { return taille; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getChargements() { return chargements; }
+        public long getEvictions() { return evictions; }
+        public double getTempsChargementMoyenMs() { return tempsChargementMoyenMs; }
+        public double getTauxHit() {
+            long total = hits + misses;
+            return total > 0 ? (double) hits / total : 0;
+        }
+    }
+}
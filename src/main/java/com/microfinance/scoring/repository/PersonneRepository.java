@@ -0,0 +1,256 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UnitOfWork;
+import com.microfinance.scoring.config.UuidCodec;
+import com.microfinance.scoring.model.Personne;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository polymorphe des clients (employés et professionnels)
+ * Une seule requête sur personnes avec LEFT JOIN vers les deux tables filles;
+ * type_client choisit la sous-classe à instancier
+ */
+public class PersonneRepository {
+
+    static final String SELECT_CLIENT = "SELECT p.*, e.salaire, e.anciennete, e.poste, e.type_contrat, e.secteur, " +
+                    "pr.revenu, pr.immatriculation_fiscale, pr.secteur_activite, pr.activite " +
+                    "FROM personnes p " +
+                    "LEFT JOIN employes e ON p.id = e.personne_id " +
+                    "LEFT JOIN professionnels pr ON p.id = pr.personne_id ";
+
+    // Nombre maximal d'identifiants par clause IN
+    private static final int TAILLE_LOT_IN = 500;
+    private static final int[] TAILLES_IN = {1, 10, 50, 100, TAILLE_LOT_IN};
+
+    private ConnectionDB connectionDB;
+    private PersonneCache cache;
+
+    public PersonneRepository() {
+        this.connectionDB = ConnectionDB.getInstance();
+        this.cache = PersonneCache.getInstance();
+    }
+
+    // READ - Trouver un client par ID, quel que soit son type (via le cache)
+    public Optional<Personne> findById(UUID id) {
+        return cache.obtenir(id, this::chargerParId);
+    }
+
+    private Optional<Personne> chargerParId(UUID id) {
+        String sql = SELECT_CLIENT + "WHERE p.id = ?";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            UuidCodec.bind(stmt, 1, id);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return Optional.ofNullable(mapResultSetToPersonne(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return Optional.empty();
+    }
+
+    // READ - Trouver plusieurs clients en une requête par lot de TAILLE_LOT_IN identifiants
+    public Map<UUID, Personne> findByIds(Collection<UUID> ids) {
+        Map<UUID, Personne> clients = new HashMap<>();
+        if (ids.isEmpty()) {
+            return clients;
+        }
+
+        List<UUID> liste = new ArrayList<>(ids);
+
+        try (Connection conn = connectionDB.getConnection()) {
+
+            for (int debut = 0; debut < liste.size(); debut += TAILLE_LOT_IN) {
+                List<UUID> lot = liste.subList(debut, Math.min(debut + TAILLE_LOT_IN, liste.size()));
+                String sql = SELECT_CLIENT + "WHERE p.id IN (" + placeholders(tailleIn(lot.size())) + ")";
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    bindIn(stmt, 1, lot);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Personne personne = mapResultSetToPersonne(rs);
+                            if (personne != null) {
+                                clients.put(personne.getId(), personne);
+                            }
+                        }
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return clients;
+    }
+
+    // READ - Partition de clients suivant apresId dans l'ordre des identifiants (keyset)
+    public List<Personne> findPartition(UUID apresId, int taille) {
+        List<Personne> clients = new ArrayList<>(taille);
+        String sql = SELECT_CLIENT + (apresId != null ? "WHERE p.id > ? " : "") + "ORDER BY p.id LIMIT ?";
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (apresId != null) {
+                UuidCodec.bind(stmt, index++, apresId);
+            }
+            stmt.setInt(index, taille);
+            stmt.setFetchSize(Math.min(taille, 500));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Personne personne = mapResultSetToPersonne(rs);
+                    if (personne != null) {
+                        clients.add(personne);
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Lecture de la partition de clients après " + apresId + " impossible", e);
+        }
+
+        return clients;
+    }
+
+    /**
+     * Mettre à jour les scores des nombre premiers clients en un seul lot
+     * Mise à jour conditionnelle (score = ancien score): une ligne modifiée entre-temps par un autre
+     * écrivain n'est pas écrasée et n'est pas marquée appliquée. Le cache est invalidé après le commit.
+     * @param ids Identifiants des clients
+     * @param anciensScores Scores lus lors du calcul
+     * @param scores Nouveaux scores
+     * @param nombre Nombre de lignes utiles dans les tableaux
+     * @return appliques[i] vrai si la ligne i a été mise à jour, null en cas d'erreur
+     */
+    public boolean[] updateScores(UUID[] ids, int[] anciensScores, int[] scores, int nombre) {
+        boolean[] appliques = new boolean[nombre];
+        if (nombre == 0) {
+            return appliques;
+        }
+        String sql = "UPDATE personnes SET score = ? WHERE id = ? AND score = ?";
+
+        try (Connection conn = connectionDB.getConnection()) {
+            int[] resultats;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < nombre; i++) {
+                    stmt.setInt(1, scores[i]);
+                    UuidCodec.bind(stmt, 2, ids[i]);
+                    stmt.setInt(3, anciensScores[i]);
+                    stmt.addBatch();
+                }
+                resultats = stmt.executeBatch();
+            }
+
+            List<Integer> sansInfo = new ArrayList<>();
+            for (int i = 0; i < nombre; i++) {
+                if (resultats[i] == Statement.SUCCESS_NO_INFO) {
+                    sansInfo.add(i);
+                } else {
+                    appliques[i] = resultats[i] > 0;
+                }
+            }
+            // Lot réécrit par le pilote sans nombre de lignes: relire les scores concernés
+            if (!sansInfo.isEmpty()) {
+                verifierScores(conn, ids, scores, sansInfo, appliques);
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        List<UUID> modifies = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            if (appliques[i]) {
+                modifies.add(ids[i]);
+            }
+        }
+        UnitOfWork.apresCommit(() -> modifies.forEach(cache::invalider));
+        return appliques;
+    }
+
+    private void verifierScores(Connection conn, UUID[] ids, int[] scores, List<Integer> indices,
+                                boolean[] appliques) throws SQLException {
+        List<UUID> verifies = new ArrayList<>(indices.size());
+        for (int i : indices) {
+            verifies.add(ids[i]);
+        }
+        String sql = "SELECT id, score FROM personnes WHERE id IN (" + placeholders(tailleIn(verifies.size())) + ")";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            bindIn(stmt, 1, verifies);
+            Map<UUID, Integer> lus = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    lus.put(UuidCodec.read(rs, "id"), rs.getInt("score"));
+                }
+            }
+            for (int i : indices) {
+                Integer score = lus.get(ids[i]);
+                appliques[i] = score != null && score == scores[i];
+            }
+        }
+    }
+
+    /**
+     * Taille de liste IN pour nombre identifiants: arrondie à l'une des TAILLES_IN, de sorte que le
+     * cache de statements ne voie que quelques textes SQL par requête au lieu d'un par taille de lot
+     */
+    static int tailleIn(int nombre) {
+        for (int taille : TAILLES_IN) {
+            if (nombre <= taille) {
+                return taille;
+            }
+        }
+        return nombre;
+    }
+
+    /**
+     * Lier les identifiants d'une liste IN de taille tailleIn(ids.size()) à partir du paramètre premier;
+     * les places en trop reçoivent le dernier identifiant (doublon sans effet sur un IN)
+     */
+    static void bindIn(PreparedStatement stmt, int premier, List<UUID> ids) throws SQLException {
+        int taille = tailleIn(ids.size());
+        for (int i = 0; i < taille; i++) {
+            UuidCodec.bind(stmt, premier + i, ids.get(Math.min(i, ids.size() - 1)));
+        }
+    }
+
+    static String placeholders(int nombre) {
+        StringBuilder sb = new StringBuilder(nombre * 3);
+        for (int i = 0; i < nombre; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    // Méthode utilitaire: instancie la sous-classe correspondant à type_client
+    static Personne mapResultSetToPersonne(ResultSet rs) throws SQLException {
+        String typeClient = rs.getString("type_client");
+
+        if ("EMPLOYE".equals(typeClient)) {
+            return EmployeRepository.mapResultSetToEmploye(rs);
+        } else if ("PROFESSIONNEL".equals(typeClient)) {
+            return ProfessionnelRepository.mapResultSetToProfessionnel(rs);
+        }
+        return null;
+    }
+}
@@ -1,12 +1,15 @@
 package com.microfinance.scoring.repository;
 
 import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UnitOfWork;
+import com.microfinance.scoring.config.UuidCodec;
 import com.microfinance.scoring.model.Professionnel;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository pour la gestion des professionnels
@@ -15,9 +18,11 @@ import java.util.UUID;
 public class ProfessionnelRepository {
     
     private ConnectionDB connectionDB;
+    private PersonneCache cache;
     
     public ProfessionnelRepository() {
         this.connectionDB = ConnectionDB.getInstance();
+        this.cache = PersonneCache.getInstance();
     }
     
     // CREATE - Sauvegarder un nouveau professionnel
@@ -25,16 +30,14 @@ public class ProfessionnelRepository {
         String sqlPersonne = "INSERT INTO personnes (id, nom, prenom, date_naissance, ville, nombre_enfants, investissement, placement, situation_familiale, created_at, score, type_client) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'PROFESSIONNEL')";
         String sqlProfessionnel = "INSERT INTO professionnels (personne_id, revenu, immatriculation_fiscale, secteur_activite, activite) VALUES (?, ?, ?, ?, ?)";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try {
+        try (Connection conn = connectionDB.getConnection()) {
             conn.setAutoCommit(false);
             
             try (PreparedStatement stmtPersonne = conn.prepareStatement(sqlPersonne);
                  PreparedStatement stmtProfessionnel = conn.prepareStatement(sqlProfessionnel)) {
                 
                 // Insert into personnes table
-                stmtPersonne.setString(1, professionnel.getId().toString());
+                UuidCodec.bind(stmtPersonne, 1, professionnel.getId());
                 stmtPersonne.setString(2, professionnel.getNom());
                 stmtPersonne.setString(3, professionnel.getPrenom());
                 stmtPersonne.setDate(4, new java.sql.Date(professionnel.getDateNaissance().getTime()));
@@ -49,7 +52,7 @@ public class ProfessionnelRepository {
                 stmtPersonne.executeUpdate();
                 
                 // Insert into professionnels table
-                stmtProfessionnel.setString(1, professionnel.getId().toString());
+                UuidCodec.bind(stmtProfessionnel, 1, professionnel.getId());
                 stmtProfessionnel.setDouble(2, professionnel.getRevenu());
                 stmtProfessionnel.setString(3, professionnel.getImmatriculationFiscale());
                 stmtProfessionnel.setString(4, professionnel.getSecteurActivite());
@@ -74,16 +77,21 @@ public class ProfessionnelRepository {
     
     // READ - Trouver par ID
     public Optional<Professionnel> findById(UUID id) {
+        return cache.obtenir(id, this::chargerParId)
+                .filter(Professionnel.class::isInstance)
+                .map(Professionnel.class::cast);
+    }
+    
+    private Optional<Professionnel> chargerParId(UUID id) {
         String sql = "SELECT p.*, pr.revenu, pr.immatriculation_fiscale, pr.secteur_activite, pr.activite " +
                     "FROM personnes p " +
                     "JOIN professionnels pr ON p.id = pr.personne_id " +
                     "WHERE p.id = ?";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, id.toString());
+            UuidCodec.bind(stmt, 1, id);
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -105,9 +113,8 @@ public class ProfessionnelRepository {
                     "JOIN professionnels pr ON p.id = pr.personne_id " +
                     "ORDER BY p.created_at DESC";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = connectionDB.getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
@@ -121,6 +128,15 @@ public class ProfessionnelRepository {
         return professionnels;
     }
     
+    // READ - Parcourir tous les professionnels en streaming, page par page
+    public Stream<Professionnel> streamAll() {
+        return LecturePaginee.stream(connectionDB,
+                "SELECT p.*, pr.revenu, pr.immatriculation_fiscale, pr.secteur_activite, pr.activite " +
+                    "FROM personnes p " +
+                    "JOIN professionnels pr ON p.id = pr.personne_id",
+                "p.id", LecturePaginee.TAILLE_PAGE_DEFAUT, ProfessionnelRepository::mapResultSetToProfessionnel);
+    }
+    
     // READ - Trouver par secteur d'activité
     public List<Professionnel> findBySecteurActivite(String secteurActivite) {
         List<Professionnel> professionnels = new ArrayList<>();
@@ -130,9 +146,8 @@ public class ProfessionnelRepository {
                     "WHERE pr.secteur_activite = ? " +
                     "ORDER BY pr.revenu DESC";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, secteurActivite);
             ResultSet rs = stmt.executeQuery();
@@ -148,6 +163,20 @@ public class ProfessionnelRepository {
         return professionnels;
     }
     
+    // READ - Trouver par secteur d'activité, page par page (keyset sur revenu, id)
+    public Page<Professionnel> findBySecteurActivite(String secteurActivite, int taillePage, String curseur) {
+        return RequetePaginee.executer(connectionDB,
+                "SELECT p.*, pr.revenu, pr.immatriculation_fiscale, pr.secteur_activite, pr.activite " +
+                    "FROM personnes p " +
+                    "JOIN professionnels pr ON p.id = pr.personne_id " +
+                    "WHERE pr.secteur_activite = ?",
+                stmt -> {
+                    stmt.setString(1, secteurActivite);
+                    return 1;
+                },
+                "pr.revenu", RequetePaginee.TypeCle.DECIMAL, "p.id", taillePage, curseur, ProfessionnelRepository::mapResultSetToProfessionnel);
+    }
+    
     // READ - Trouver professionnels éligibles aux prêts business
     public List<Professionnel> findEligibleForBusinessLoans() {
         List<Professionnel> professionnels = new ArrayList<>();
@@ -160,9 +189,8 @@ public class ProfessionnelRepository {
                     "AND pr.secteur_activite IN ('SERVICE', 'COMMERCE', 'SANTE', 'EDUCATION') " +
                     "ORDER BY p.score DESC";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = connectionDB.getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
@@ -185,9 +213,8 @@ public class ProfessionnelRepository {
                     "WHERE pr.revenu >= 8000 " +
                     "ORDER BY pr.revenu DESC";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = connectionDB.getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
@@ -210,9 +237,8 @@ public class ProfessionnelRepository {
                     "WHERE pr.immatriculation_fiscale IS NOT NULL AND pr.immatriculation_fiscale != '' " +
                     "ORDER BY p.score DESC";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = connectionDB.getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
@@ -239,9 +265,8 @@ public class ProfessionnelRepository {
                     "GROUP BY pr.secteur_activite " +
                     "ORDER BY average_score DESC";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = connectionDB.getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
@@ -267,9 +292,7 @@ public class ProfessionnelRepository {
         String sqlPersonne = "UPDATE personnes SET nom = ?, prenom = ?, ville = ?, nombre_enfants = ?, investissement = ?, placement = ?, situation_familiale = ?, score = ? WHERE id = ?";
         String sqlProfessionnel = "UPDATE professionnels SET revenu = ?, immatriculation_fiscale = ?, secteur_activite = ?, activite = ? WHERE personne_id = ?";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try {
+        try (Connection conn = connectionDB.getConnection()) {
             conn.setAutoCommit(false);
             
             try (PreparedStatement stmtPersonne = conn.prepareStatement(sqlPersonne);
@@ -284,7 +307,7 @@ public class ProfessionnelRepository {
                 stmtPersonne.setString(6, professionnel.getPlacement());
                 stmtPersonne.setString(7, professionnel.getSituationFamiliale());
                 stmtPersonne.setInt(8, professionnel.getScore());
-                stmtPersonne.setString(9, professionnel.getId().toString());
+                UuidCodec.bind(stmtPersonne, 9, professionnel.getId());
                 
                 stmtPersonne.executeUpdate();
                 
@@ -293,11 +316,13 @@ public class ProfessionnelRepository {
                 stmtProfessionnelStmt.setString(2, professionnel.getImmatriculationFiscale());
                 stmtProfessionnelStmt.setString(3, professionnel.getSecteurActivite());
                 stmtProfessionnelStmt.setString(4, professionnel.getActivite());
-                stmtProfessionnelStmt.setString(5, professionnel.getId().toString());
+                UuidCodec.bind(stmtProfessionnelStmt, 5, professionnel.getId());
                 
                 stmtProfessionnelStmt.executeUpdate();
                 
                 conn.commit();
+                UUID professionnelId = professionnel.getId();
+                UnitOfWork.apresCommit(() -> cache.invalider(professionnelId));
                 return true;
                 
             } catch (SQLException e) {
@@ -317,23 +342,22 @@ public class ProfessionnelRepository {
         String sqlProfessionnel = "DELETE FROM professionnels WHERE personne_id = ?";
         String sqlPersonne = "DELETE FROM personnes WHERE id = ?";
         
-        Connection conn = connectionDB.getConnection();
-        
-        try {
+        try (Connection conn = connectionDB.getConnection()) {
             conn.setAutoCommit(false);
             
             try (PreparedStatement stmtProfessionnel = conn.prepareStatement(sqlProfessionnel);
                  PreparedStatement stmtPersonne = conn.prepareStatement(sqlPersonne)) {
                 
                 // Delete from professionnels first (foreign key constraint)
-                stmtProfessionnel.setString(1, id.toString());
+                UuidCodec.bind(stmtProfessionnel, 1, id);
                 stmtProfessionnel.executeUpdate();
                 
                 // Delete from personnes
-                stmtPersonne.setString(1, id.toString());
+                UuidCodec.bind(stmtPersonne, 1, id);
                 stmtPersonne.executeUpdate();
                 
                 conn.commit();
+                UnitOfWork.apresCommit(() -> cache.invalider(id));
                 return true;
                 
             } catch (SQLException e) {
@@ -349,11 +373,11 @@ public class ProfessionnelRepository {
     }
     
     // Méthode utilitaire pour mapper ResultSet vers Professionnel
-    private Professionnel mapResultSetToProfessionnel(ResultSet rs) throws SQLException {
+    static Professionnel mapResultSetToProfessionnel(ResultSet rs) throws SQLException {
         Professionnel professionnel = new Professionnel();
         
         // Set Personne fields
-        professionnel.setId(UUID.fromString(rs.getString("id")));
+        professionnel.setId(UuidCodec.read(rs, "id"));
         professionnel.setNom(rs.getString("nom"));
         professionnel.setPrenom(rs.getString("prenom"));
         professionnel.setDateNaissance(rs.getDate("date_naissance"));
@@ -0,0 +1,216 @@
+package com.microfinance.scoring.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Description typée d'une agrégation calculée par la base (GROUP BY)
+ * Exemple: RequeteAgregation.sur(Source.CREDITS).grouperPar(Dimension.CONTRAT, Dimension.DECISION)
+ *              .mesurer(Mesure.nombre(), Mesure.somme(Colonne.MONTANT_OCTROYE))
+ * Chaque source inclut les jointures de la précédente (incident → échéance → crédit → client):
+ * toute colonne d'une source englobée est disponible. Les sommes de colonnes de crédit sur la
+ * source ECHEANCES ou INCIDENTS comptent le crédit une fois par ligne jointe.
+ */
+public final class RequeteAgregation {
+
+    public enum Source {
+        CREDITS("credits c", "c.date_credit"),
+        ECHEANCES("echeances ech JOIN credits c ON c.id = ech.credit_id", "ech.date_echeance"),
+        INCIDENTS("incidents i JOIN echeances ech ON ech.id = i.echeance_id JOIN credits c ON c.id = ech.credit_id", "i.date_incident");
+
+        private final String from;
+        private final String colonneDate;
+
+        Source(String from, String colonneDate) {
+            this.from = from;
+            this.colonneDate = colonneDate;
+        }
+
+        public String getColonneDate() {
+            return colonneDate;
+        }
+    }
+
+    public enum Dimension {
+        TYPE_CREDIT("c.type_credit"),
+        DECISION("c.decision"),
+        // Secteur d'activité des professionnels, secteur de l'employeur pour les employés
+        SECTEUR("COALESCE(pr.secteur_activite, e.secteur)"),
+        CONTRAT("e.type_contrat"),
+        // Mois (AAAA-MM) de la date de référence de la source
+        MOIS(null);
+
+        private final String expression;
+
+        Dimension(String expression) {
+            this.expression = expression;
+        }
+
+        String expression(Source source) {
+            return this == MOIS ? "DATE_FORMAT(" + source.colonneDate + ", '%Y-%m')" : expression;
+        }
+
+        boolean requiertClient() {
+            return this == SECTEUR || this == CONTRAT;
+        }
+    }
+
+    public enum Colonne {
+        MONTANT_DEMANDE("c.montant_demande", Source.CREDITS),
+        MONTANT_OCTROYE("c.montant_octroye", Source.CREDITS),
+        TAUX_INTERET("c.taux_interet", Source.CREDITS),
+        DUREE_MOIS("c.duree_mois", Source.CREDITS),
+        MONTANT_ECHEANCE("ech.montant_echeance", Source.ECHEANCES),
+        MONTANT_PAYE("ech.montant_paye", Source.ECHEANCES),
+        JOURS_RETARD("ech.jours_retard", Source.ECHEANCES),
+        SCORE_IMPACT("i.score_impact", Source.INCIDENTS);
+
+        private final String expression;
+        private final Source source;
+
+        Colonne(String expression, Source source) {
+            this.expression = expression;
+            this.source = source;
+        }
+
+        boolean disponibleSur(Source s) {
+            return s.ordinal() >= source.ordinal();
+        }
+    }
+
+    public enum Fonction { COUNT, SUM, AVG }
+
+    public static final class Mesure {
+        private final Fonction fonction;
+        private final Colonne colonne;
+
+        private Mesure(Fonction fonction, Colonne colonne) {
+            this.fonction = fonction;
+            this.colonne = colonne;
+        }
+
+        public static Mesure nombre() {
+            return new Mesure(Fonction.COUNT, null);
+        }
+
+        public static Mesure somme(Colonne colonne) {
+            return new Mesure(Fonction.SUM, colonne);
+        }
+
+        public static Mesure moyenne(Colonne colonne) {
+            return new Mesure(Fonction.AVG, colonne);
+        }
+
+        String expression() {
+            switch (fonction) {
+                case SUM:
+                    return "COALESCE(SUM(" + colonne.expression + "), 0)";
+                case AVG:
+                    return "AVG(" + colonne.expression + ")";
+                default:
+                    return "COUNT(*)";
+            }
+        }
+
+        public Fonction getFonction() { return fonction; }
+        public Colonne getColonne() { return colonne; }
+
+        @Override
+        public String toString() {
+            return colonne == null ? fonction.name() : fonction + "(" + colonne + ")";
+        }
+    }
+
+    private final Source source;
+    private final List<Dimension> dimensions = new ArrayList<>();
+    private final List<Mesure> mesures = new ArrayList<>();
+    private LocalDate debut;
+    private LocalDate fin;
+
+    private RequeteAgregation(Source source) {
+        this.source = source;
+    }
+
+    public static RequeteAgregation sur(Source source) {
+        return new RequeteAgregation(source);
+    }
+
+    public RequeteAgregation grouperPar(Dimension... dims) {
+        for (Dimension dimension : dims) {
+            if (dimensions.contains(dimension)) {
+                throw new IllegalArgumentException("Dimension en double: " + dimension);
+            }
+            dimensions.add(dimension);
+        }
+        return this;
+    }
+
+    public RequeteAgregation mesurer(Mesure... liste) {
+        for (Mesure mesure : liste) {
+            if (mesure.colonne != null && !mesure.colonne.disponibleSur(source)) {
+                throw new IllegalArgumentException("Colonne " + mesure.colonne + " indisponible sur la source " + source);
+            }
+            mesures.add(mesure);
+        }
+        return this;
+    }
+
+    /**
+     * Restreindre à une période sur la date de référence de la source
+     * @param debut Date incluse, null pour ne pas borner
+     * @param fin Date exclue, null pour ne pas borner
+     */
+    public RequeteAgregation periode(LocalDate debut, LocalDate fin) {
+        this.debut = debut;
+        this.fin = fin;
+        return this;
+    }
+
+    /**
+     * Requête SQL générée; les paramètres sont les bornes de période non nulles, dans l'ordre
+     */
+    String versSql() {
+        if (mesures.isEmpty()) {
+            throw new IllegalStateException("Au moins une mesure est requise");
+        }
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (int d = 0; d < dimensions.size(); d++) {
+            select.append(dimensions.get(d).expression(source)).append(" AS d").append(d).append(", ");
+        }
+        for (int m = 0; m < mesures.size(); m++) {
+            select.append(m > 0 ? ", " : "").append(mesures.get(m).expression()).append(" AS m").append(m);
+        }
+
+        StringBuilder sql = select.append(" FROM ").append(source.from);
+        if (dimensions.stream().anyMatch(Dimension::requiertClient)) {
+            sql.append(" LEFT JOIN employes e ON e.personne_id = c.client_id")
+               .append(" LEFT JOIN professionnels pr ON pr.personne_id = c.client_id");
+        }
+        if (debut != null || fin != null) {
+            sql.append(" WHERE ");
+            if (debut != null) {
+                sql.append(source.colonneDate).append(" >= ?");
+            }
+            if (fin != null) {
+                sql.append(debut != null ? " AND " : "").append(source.colonneDate).append(" < ?");
+            }
+        }
+        if (!dimensions.isEmpty()) {
+            StringBuilder colonnes = new StringBuilder();
+            for (int d = 0; d < dimensions.size(); d++) {
+                colonnes.append(d > 0 ? ", " : "").append("d").append(d);
+            }
+            sql.append(" GROUP BY ").append(colonnes).append(" ORDER BY ").append(colonnes);
+        }
+        return sql.toString();
+    }
+
+    // Getters
+    public Source getSource() { return source; }
+    public List<Dimension> getDimensions() { return Collections.unmodifiableList(dimensions); }
+    public List<Mesure> getMesures() { return Collections.unmodifiableList(mesures); }
+    public LocalDate getDebut() { return debut; }
+    public LocalDate getFin() { return fin; }
+}
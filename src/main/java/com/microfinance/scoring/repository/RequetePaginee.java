@@ -0,0 +1,116 @@
+package com.microfinance.scoring.repository;
+
+import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.config.UuidCodec;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Exécution d'une requête triée par (clé de tri DESC, id DESC) avec un prédicat de recherche
+ * à la place d'un OFFSET: le coût d'une page ne dépend pas de son rang.
+ */
+final class RequetePaginee {
+
+    enum TypeCle { DATE, DECIMAL }
+
+    private RequetePaginee() {
+    }
+
+    /**
+     * @param selectFiltre SELECT ... FROM ... WHERE <filtres> (sans ORDER BY)
+     * @param binder Lie les paramètres des filtres, à partir de l'index 1
+     * @param colonneTri Colonne de tri (ex: "date_credit")
+     * @param colonneId Colonne UUID départageant les égalités (ex: "id")
+     * @param curseur Curseur renvoyé par la page précédente, null pour la première page
+     */
+    static <T> Page<T> executer(ConnectionDB connectionDB, String selectFiltre, Binder binder,
+                                String colonneTri, TypeCle typeCle, String colonneId,
+                                int taillePage, String curseur, LecturePaginee.RowMapper<T> mapper) {
+        if (taillePage < 1) {
+            throw new IllegalArgumentException("La taille de page doit être positive");
+        }
+
+        String[] position = curseur != null ? decoder(curseur) : null;
+        String sql = selectFiltre
+                + (position != null ? " AND (" + colonneTri + " < ? OR (" + colonneTri + " = ? AND " + colonneId + " < ?))" : "")
+                + " ORDER BY " + colonneTri + " DESC, " + colonneId + " DESC LIMIT ?";
+
+        String libelleTri = colonneTri.substring(colonneTri.indexOf('.') + 1);
+        String libelleId = colonneId.substring(colonneId.indexOf('.') + 1);
+        List<T> elements = new ArrayList<>(taillePage);
+        String dernierTri = null;
+        UUID dernierId = null;
+        boolean suite = false;
+
+        try (Connection conn = connectionDB.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = binder.bind(stmt) + 1;
+            if (position != null) {
+                lierCle(stmt, index++, typeCle, position[0]);
+                lierCle(stmt, index++, typeCle, position[0]);
+                UuidCodec.bind(stmt, index++, UUID.fromString(position[1]));
+            }
+            // Une ligne de plus pour savoir s'il existe une page suivante
+            stmt.setInt(index, taillePage + 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (elements.size() == taillePage) {
+                        suite = true;
+                        break;
+                    }
+                    elements.add(mapper.map(rs));
+                    dernierTri = typeCle == TypeCle.DATE
+                            ? rs.getDate(libelleTri).toString()
+                            : rs.getBigDecimal(libelleTri).toPlainString();
+                    dernierId = UuidCodec.read(rs, libelleId);
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        return new Page<>(elements, suite ? encoder(dernierTri, dernierId) : null);
+    }
+
+    private static void lierCle(PreparedStatement stmt, int index, TypeCle typeCle, String valeur) throws SQLException {
+        if (typeCle == TypeCle.DATE) {
+            stmt.setDate(index, java.sql.Date.valueOf(valeur));
+        } else {
+            stmt.setBigDecimal(index, new java.math.BigDecimal(valeur));
+        }
+    }
+
+    private static String encoder(String cleTri, UUID id) {
+        String brut = cleTri + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decoder(String curseur) {
+        try {
+            String brut = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+            String[] position = brut.split("\\|", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide: " + curseur, e);
+        }
+    }
+
+    @FunctionalInterface
+    interface Binder {
+        /**
+         * Lier les paramètres de filtre
+         * @return Nombre de paramètres liés
+         */
+        int bind(PreparedStatement stmt) throws SQLException;
+    }
+}
@@ -0,0 +1,147 @@
+package com.microfinance.scoring.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Résultat d'une agrégation, en colonnes primitives
+ * Chaque dimension est codée par un entier renvoyant à son dictionnaire de valeurs;
+ * chaque mesure est une colonne de doubles (AVG sur un groupe vide: NaN).
+ */
+public final class TableAgregation {
+
+    private final RequeteAgregation requete;
+    private int nombreLignes;
+    private int capacite;
+    private int[][] codes;
+    private double[][] valeurs;
+    private final List<List<String>> dictionnaires;
+    private final List<Map<String, Integer>> index;
+
+    TableAgregation(RequeteAgregation requete, int capacite) {
+        this.requete = requete;
+        this.capacite = capacite;
+        int nbDimensions = requete.getDimensions().size();
+        this.codes = new int[nbDimensions][capacite];
+        this.valeurs = new double[requete.getMesures().size()][capacite];
+        this.dictionnaires = new ArrayList<>(nbDimensions);
+        this.index = new ArrayList<>(nbDimensions);
+        for (int d = 0; d < nbDimensions; d++) {
+            dictionnaires.add(new ArrayList<>());
+            index.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Ajouter une ligne (lecture du ResultSet)
+     */
+    void ajouter(String[] cles, double[] mesures) {
+        if (nombreLignes == capacite) {
+            capacite = Math.max(16, capacite * 2);
+            for (int d = 0; d < codes.length; d++) {
+                codes[d] = Arrays.copyOf(codes[d], capacite);
+            }
+            for (int m = 0; m < valeurs.length; m++) {
+                valeurs[m] = Arrays.copyOf(valeurs[m], capacite);
+            }
+        }
+        for (int d = 0; d < codes.length; d++) {
+            codes[d][nombreLignes] = coder(d, cles[d]);
+        }
+        for (int m = 0; m < valeurs.length; m++) {
+            valeurs[m][nombreLignes] = mesures[m];
+        }
+        nombreLignes++;
+    }
+
+    private int coder(int dimension, String valeur) {
+        Integer code = index.get(dimension).get(valeur);
+        if (code == null) {
+            code = dictionnaires.get(dimension).size();
+            dictionnaires.get(dimension).add(valeur);
+            index.get(dimension).put(valeur, code);
+        }
+        return code;
+    }
+
+    public int getNombreLignes() {
+        return nombreLignes;
+    }
+
+    /**
+     * Valeur de la dimension d pour une ligne (null si la valeur SQL est nulle)
+     */
+    public String getCle(int ligne, int d) {
+        return dictionnaires.get(d).get(getCode(ligne, d));
+    }
+
+    public int getCode(int ligne, int d) {
+        verifierLigne(ligne);
+        return codes[d][ligne];
+    }
+
+    public double getValeur(int ligne, int m) {
+        verifierLigne(ligne);
+        return valeurs[m][ligne];
+    }
+
+    /**
+     * Valeurs distinctes prises par la dimension d, indexées par code
+     */
+    public List<String> getDictionnaire(int d) {
+        return Collections.unmodifiableList(dictionnaires.get(d));
+    }
+
+    /**
+     * Chercher la ligne d'une combinaison de clés (une par dimension)
+     * @return Index de la ligne, -1 si absente
+     */
+    public int trouver(String... cles) {
+        if (cles.length != codes.length) {
+            throw new IllegalArgumentException("Attendu " + codes.length + " clés, reçu " + cles.length);
+        }
+        int[] cherches = new int[cles.length];
+        for (int d = 0; d < cles.length; d++) {
+            Integer code = index.get(d).get(cles[d]);
+            if (code == null) {
+                return -1;
+            }
+            cherches[d] = code;
+        }
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            boolean egal = true;
+            for (int d = 0; d < cherches.length && egal; d++) {
+                egal = codes[d][ligne] == cherches[d];
+            }
+            if (egal) {
+                return ligne;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Total d'une mesure sur toutes les lignes (pertinent pour COUNT et SUM)
+     */
+    public double total(int m) {
+        double total = 0;
+        for (int ligne = 0; ligne < nombreLignes; ligne++) {
+            total += valeurs[m][ligne];
+        }
+        return total;
+    }
+
+    public RequeteAgregation getRequete() {
+        return requete;
+    }
+
+    private void verifierLigne(int ligne) {
+        if (ligne < 0 || ligne >= nombreLignes) {
+            throw new IndexOutOfBoundsException("Ligne " + ligne + " hors de [0, " + nombreLignes + ")");
+        }
+    }
+}
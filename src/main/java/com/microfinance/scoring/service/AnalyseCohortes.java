@@ -0,0 +1,357 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.model.enums.TypeCredit;
+import com.microfinance.scoring.repository.EcheanceRepository;
+import com.microfinance.scoring.repository.EcheanceRepository.HistoriqueEcheance;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Analyse par génération (vintage): état de retard des crédits par cohorte (mois d'octroi,
+ * type de crédit) et par ancienneté en mois (months-on-book)
+ * L'état d'un crédit à l'ancienneté k est figé à la fin du k-ième mois suivant l'octroi, d'après
+ * l'échéance impayée la plus ancienne à cette date. Un seul passage sur les échéances triées par
+ * crédit; les crédits terminés sont traités par lots, en parallèle par partition de cohortes
+ * (chaque cohorte appartient à une seule partition: aucune synchronisation sur les matrices).
+ * Requiert des échéanciers stockés en mode COMPLET: en mode VIRTUEL, une échéance impayée n'a pas
+ * de ligne et le crédit paraîtrait à jour.
+ */
+public class AnalyseCohortes {
+
+    public enum Etat { COURANT, RETARD_1_29, RETARD_30_89, DEFAUT, SOLDE }
+
+    public static final int MOB_MAX = 360;
+    private static final int JOURS_DEFAUT = 90;
+    private static final int TAILLE_LOT = 2048;
+    private static final int SANS_DATE = Integer.MAX_VALUE;
+
+    private final EcheanceRepository echeanceRepository;
+    private final int partitions;
+
+    private final Map<Long, Cohorte> cohortes = new HashMap<>();
+    private YearMonth dernierMoisClos;
+
+    public AnalyseCohortes() {
+        this(Integer.getInteger("microfinance.cohortes.parallelism", Runtime.getRuntime().availableProcessors()));
+    }
+
+    public AnalyseCohortes(int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Le parallélisme doit être positif: " + partitions);
+        }
+        this.echeanceRepository = new EcheanceRepository();
+        this.partitions = partitions;
+    }
+
+    /**
+     * Recalcul complet de toutes les cohortes jusqu'à un mois clos inclus
+     * @param jusqua Dernier mois observé (ex: le mois précédent)
+     */
+    public synchronized void calculer(YearMonth jusqua) {
+        echeanceRepository.exigerEcheanciersComplets("AnalyseCohortes");
+        cohortes.clear();
+        dernierMoisClos = null;
+        Collecteur collecteur = new Collecteur(jusqua, false);
+        echeanceRepository.parcourirHistorique(jusqua.atEndOfMonth(), collecteur::ajouter);
+        collecteur.terminer();
+        dernierMoisClos = jusqua;
+    }
+
+    /**
+     * Intégrer un ou plusieurs mois clos depuis la dernière mise à jour
+     * Seuls les crédits en cours pendant le mois sont relus, et seule la colonne d'ancienneté
+     * correspondant à ce mois est alimentée pour chacun.
+     * @param mois Mois clos à intégrer (les mois intermédiaires manquants le sont aussi)
+     */
+    public synchronized void cloturerMois(YearMonth mois) {
+        if (dernierMoisClos == null) {
+            calculer(mois);
+            return;
+        }
+        if (!mois.isAfter(dernierMoisClos)) {
+            throw new IllegalStateException("Le mois " + mois + " est déjà intégré (dernier mois clos: " + dernierMoisClos + ")");
+        }
+        echeanceRepository.exigerEcheanciersComplets("AnalyseCohortes");
+        for (YearMonth m = dernierMoisClos.plusMonths(1); !m.isAfter(mois); m = m.plusMonths(1)) {
+            Collecteur collecteur = new Collecteur(m, true);
+            try {
+                echeanceRepository.parcourirHistoriqueActifs(m.atDay(1), m.atEndOfMonth(), collecteur::ajouter);
+                collecteur.terminer();
+            } catch (RuntimeException e) {
+                // Mois partiellement intégré: le prochain appel repartira d'un recalcul complet
+                dernierMoisClos = null;
+                throw e;
+            }
+            dernierMoisClos = m;
+        }
+    }
+
+    public synchronized Optional<Cohorte> getCohorte(YearMonth mois, TypeCredit typeCredit) {
+        return Optional.ofNullable(cohortes.get(cle(mois, typeCredit)));
+    }
+
+    /**
+     * Cohortes triées par mois d'octroi puis type de crédit
+     */
+    public synchronized List<Cohorte> getCohortes() {
+        List<Cohorte> liste = new ArrayList<>(cohortes.values());
+        liste.sort(Comparator.comparing(Cohorte::getMois).thenComparing(Cohorte::getTypeCredit));
+        return liste;
+    }
+
+    public synchronized YearMonth getDernierMoisClos() {
+        return dernierMoisClos;
+    }
+
+    private static long cle(YearMonth mois, TypeCredit typeCredit) {
+        return (mois.getYear() * 12L + mois.getMonthValue() - 1) * TypeCredit.values().length + typeCredit.ordinal();
+    }
+
+    /**
+     * Regroupe les lignes d'un même crédit (elles arrivent consécutives) et envoie les crédits
+     * complets par lots aux partitions
+     */
+    private final class Collecteur {
+        private final YearMonth mois;
+        private final boolean incremental;
+        private final List<HistoriqueCredit> lot = new ArrayList<>(TAILLE_LOT);
+
+        private UUID creditCourant;
+        private HistoriqueEcheance premiere;
+        private int nombre;
+        private int[] echeances = new int[64];
+        private int[] paiements = new int[64];
+        private int dateDefaut = SANS_DATE;
+
+        Collecteur(YearMonth mois, boolean incremental) {
+            this.mois = mois;
+            this.incremental = incremental;
+        }
+
+        void ajouter(HistoriqueEcheance ligne) {
+            if (!ligne.getCreditId().equals(creditCourant)) {
+                terminerCredit();
+                creditCourant = ligne.getCreditId();
+                premiere = ligne;
+            }
+            if (nombre == echeances.length) {
+                echeances = Arrays.copyOf(echeances, nombre * 2);
+                paiements = Arrays.copyOf(paiements, nombre * 2);
+            }
+            echeances[nombre] = (int) ligne.getDateEcheance().toEpochDay();
+            paiements[nombre] = ligne.getDatePaiement() != null ? (int) ligne.getDatePaiement().toEpochDay() : SANS_DATE;
+            if (ligne.getDateDefaut() != null) {
+                dateDefaut = Math.min(dateDefaut, (int) ligne.getDateDefaut().toEpochDay());
+            }
+            nombre++;
+        }
+
+        void terminer() {
+            terminerCredit();
+            traiterLot();
+        }
+
+        private void terminerCredit() {
+            if (creditCourant != null) {
+                YearMonth origine = YearMonth.from(premiere.getDateCredit());
+                // Création des cohortes par le seul thread lecteur, avant l'envoi aux partitions
+                Cohorte cohorte = cohortes.computeIfAbsent(cle(origine, premiere.getTypeCredit()),
+                        k -> new Cohorte(origine, premiere.getTypeCredit()));
+                lot.add(new HistoriqueCredit(cohorte, premiere.getDureeMois(),
+                        Arrays.copyOf(echeances, nombre), Arrays.copyOf(paiements, nombre), dateDefaut));
+                if (lot.size() == TAILLE_LOT) {
+                    traiterLot();
+                }
+            }
+            creditCourant = null;
+            nombre = 0;
+            dateDefaut = SANS_DATE;
+        }
+
+        private void traiterLot() {
+            if (lot.isEmpty()) {
+                return;
+            }
+            IntStream.range(0, partitions).parallel().forEach(p -> {
+                for (HistoriqueCredit credit : lot) {
+                    if (Math.floorMod(cle(credit.cohorte.mois, credit.cohorte.typeCredit), partitions) == p) {
+                        if (incremental) {
+                            credit.enregistrerMois(mois);
+                        } else {
+                            credit.enregistrerJusqua(mois);
+                        }
+                    }
+                }
+            });
+            lot.clear();
+        }
+    }
+
+    /**
+     * Échéancier d'un crédit en jours depuis l'époque (paiement: SANS_DATE si impayée)
+     */
+    private static final class HistoriqueCredit {
+        private final Cohorte cohorte;
+        private final int dureeMois;
+        private final int[] echeances;
+        private final int[] paiements;
+        private final int dateDefaut;
+
+        HistoriqueCredit(Cohorte cohorte, int dureeMois, int[] echeances, int[] paiements, int dateDefaut) {
+            this.cohorte = cohorte;
+            this.dureeMois = dureeMois;
+            this.echeances = echeances;
+            this.paiements = paiements;
+            this.dateDefaut = dateDefaut;
+        }
+
+        // Recalcul complet: anciennetés 1..(jusqua - mois d'octroi), arrêt au solde
+        void enregistrerJusqua(YearMonth jusqua) {
+            int kMax = (int) Math.min(MOB_MAX, ChronoUnit.MONTHS.between(cohorte.mois, jusqua));
+            boolean enDefaut = false;
+            for (int k = 1; k <= kMax; k++) {
+                Etat etat = etat(k);
+                cohorte.enregistrer(k, etat, etat == Etat.DEFAUT && !enDefaut);
+                enDefaut |= etat == Etat.DEFAUT;
+                if (etat == Etat.SOLDE) {
+                    return;
+                }
+            }
+        }
+
+        // Mise à jour mensuelle: seule l'ancienneté correspondant au mois est enregistrée
+        void enregistrerMois(YearMonth mois) {
+            long k = ChronoUnit.MONTHS.between(cohorte.mois, mois);
+            if (k < 1 || k > MOB_MAX) {
+                return;
+            }
+            boolean enDefaut = false;
+            for (int j = 1; j < k; j++) {
+                Etat precedent = etat(j);
+                if (precedent == Etat.SOLDE) {
+                    return;
+                }
+                enDefaut |= precedent == Etat.DEFAUT;
+            }
+            Etat etat = etat((int) k);
+            cohorte.enregistrer((int) k, etat, etat == Etat.DEFAUT && !enDefaut);
+        }
+
+        // État à la fin du k-ième mois suivant l'octroi
+        Etat etat(int k) {
+            int fin = (int) cohorte.mois.plusMonths(k).atEndOfMonth().toEpochDay();
+            int joursRetard = 0;
+            boolean toutPaye = echeances.length >= dureeMois;
+            for (int j = 0; j < echeances.length; j++) {
+                if (echeances[j] > fin) {
+                    toutPaye = false;
+                    break;
+                }
+                if (paiements[j] > fin) {
+                    joursRetard = Math.max(joursRetard, fin - echeances[j]);
+                    toutPaye = false;
+                }
+            }
+            // Un crédit intégralement remboursé sort de la cohorte, même après un défaut
+            if (toutPaye) {
+                return Etat.SOLDE;
+            }
+            if (dateDefaut <= fin || joursRetard >= JOURS_DEFAUT) {
+                return Etat.DEFAUT;
+            }
+            if (joursRetard >= 30) {
+                return Etat.RETARD_30_89;
+            }
+            if (joursRetard >= 1) {
+                return Etat.RETARD_1_29;
+            }
+            return Etat.COURANT;
+        }
+    }
+
+    /**
+     * Matrices d'une cohorte: nombre de crédits par (état, ancienneté) et premiers défauts par ancienneté
+     * Un crédit entre dans la cohorte à l'ancienneté 1 et en sort après l'ancienneté où il est soldé.
+     */
+    public static final class Cohorte {
+        private final YearMonth mois;
+        private final TypeCredit typeCredit;
+        private final int[][] etats = new int[Etat.values().length][MOB_MAX + 1];
+        private final int[] premiersDefauts = new int[MOB_MAX + 1];
+        private int nombreCredits;
+        private int ancienneteMax;
+
+        private Cohorte(YearMonth mois, TypeCredit typeCredit) {
+            this.mois = mois;
+            this.typeCredit = typeCredit;
+        }
+
+        private void enregistrer(int k, Etat etat, boolean premierDefaut) {
+            etats[etat.ordinal()][k]++;
+            if (premierDefaut) {
+                premiersDefauts[k]++;
+            }
+            if (k == 1) {
+                nombreCredits++;
+            }
+            ancienneteMax = Math.max(ancienneteMax, k);
+        }
+
+        public int getNombre(Etat etat, int anciennete) {
+            return etats[etat.ordinal()][anciennete];
+        }
+
+        /**
+         * Crédits observés à une ancienneté (tous états confondus)
+         */
+        public int getObserves(int anciennete) {
+            int total = 0;
+            for (int[] ligne : etats) {
+                total += ligne[anciennete];
+            }
+            return total;
+        }
+
+        /**
+         * Part cumulée des crédits de la cohorte entrés en défaut au plus tard à cette ancienneté
+         */
+        public double getTauxDefautCumule(int anciennete) {
+            if (nombreCredits == 0) {
+                return 0;
+            }
+            int defauts = 0;
+            for (int k = 1; k <= anciennete; k++) {
+                defauts += premiersDefauts[k];
+            }
+            return (double) defauts / nombreCredits;
+        }
+
+        /**
+         * Courbe de défaut cumulé, index = ancienneté (0..ancienneté maximale observée)
+         */
+        public double[] courbeDefaut() {
+            double[] courbe = new double[ancienneteMax + 1];
+            int defauts = 0;
+            for (int k = 1; k <= ancienneteMax; k++) {
+                defauts += premiersDefauts[k];
+                courbe[k] = nombreCredits > 0 ? (double) defauts / nombreCredits : 0;
+            }
+            return courbe;
+        }
+
+        // Getters
+        public YearMonth getMois() { return mois; }
+        public TypeCredit getTypeCredit() { return typeCredit; }
+        public int getNombreCredits() { return nombreCredits; }
+        public int getAncienneteMax() { return ancienneteMax; }
+    }
+}
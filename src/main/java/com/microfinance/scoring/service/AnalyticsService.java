@@ -1,5 +1,635 @@
 package com.microfinance.scoring.service;
 
-public class AnalyticsService {
-    
-}
\ No newline at end of file
+import com.microfinance.scoring.model.Credit;
+import com.microfinance.scoring.model.Echeance;
+import com.microfinance.scoring.model.enums.Decision;
+import com.microfinance.scoring.model.enums.TypeCredit;
+import com.microfinance.scoring.repository.CreditRepository;
+import com.microfinance.scoring.repository.CreditRepository.CreditClient;
+import com.microfinance.scoring.repository.EcheanceRepository;
+import com.microfinance.scoring.repository.EcouteurCredits;
+import com.microfinance.scoring.repository.EvenementsCredits;
+import com.microfinance.scoring.repository.IncidentRepository;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Cube d'analyse du portefeuille en mémoire (Singleton)
+ * Une ligne par crédit, en colonnes primitives: dimensions codées (type, décision, secteur, ville,
+ * mois) et mesures (montants, échéances, incidents). Chargé une fois en streaming, puis tenu à
+ * jour par les événements de CreditRepository; les ventilations sont des balayages parallèles
+ * qui ne sollicitent pas la base.
+ */
+public class AnalyticsService implements EcouteurCredits {
+
+    public enum Dimension { TYPE_CREDIT, DECISION, SECTEUR, VILLE, MOIS }
+
+    public enum Mesure {
+        NOMBRE,
+        MONTANT_DEMANDE,
+        MONTANT_OCTROYE,
+        NOMBRE_ECHEANCES,
+        MONTANT_ECHEANCES,
+        ECHEANCES_PAYEES,
+        INCIDENTS;
+
+        boolean porteSurEcheances() {
+            return this == NOMBRE_ECHEANCES || this == MONTANT_ECHEANCES || this == ECHEANCES_PAYEES;
+        }
+    }
+
+    private static AnalyticsService instance = null;
+
+    private static final int TAILLE_BLOC = 16_384;
+    // Au-delà, les cellules sont accumulées dans une table de hachage plutôt qu'un tableau dense
+    private static final int CELLULES_DENSES_MAX = 1 << 16;
+
+    private final CreditRepository creditRepository;
+    private final EcheanceRepository echeanceRepository;
+    private final IncidentRepository incidentRepository;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private Colonnes colonnes = new Colonnes(16);
+
+    // Mises à jour reçues pendant un chargement, rejouées sur les nouvelles colonnes
+    private final List<Runnable> enAttente = new ArrayList<>();
+    private boolean chargementEnCours = false;
+    // Un seul chargement à la fois: deux chargements concurrents se disputeraient enAttente
+    private final Object verrouChargement = new Object();
+
+    private AnalyticsService() {
+        this.creditRepository = new CreditRepository();
+        this.echeanceRepository = new EcheanceRepository();
+        this.incidentRepository = new IncidentRepository();
+    }
+
+    public static synchronized AnalyticsService getInstance() {
+        if (instance == null) {
+            instance = new AnalyticsService();
+            EvenementsCredits.getInstance().abonner(instance);
+            instance.charger();
+        }
+        return instance;
+    }
+
+    /**
+     * (Re)charger le cube: crédits avec ville et secteur du client, puis échéances et incidents,
+     * en lectures paginées. Les échéances et incidents ne publient pas d'événements: leurs mesures
+     * sont celles du dernier chargement. Si des échéanciers sont stockés en mode VIRTUEL, la table
+     * echeances est incomplète: les mesures d'échéances sont alors déclarées indisponibles.
+     * Les appels concurrents sont sérialisés.
+     */
+    public void charger() {
+        synchronized (verrouChargement) {
+            chargerSeul();
+        }
+    }
+
+    private void chargerSeul() {
+        synchronized (enAttente) {
+            chargementEnCours = true;
+        }
+        Colonnes nouvelles = new Colonnes(1024);
+        try {
+            try (Stream<CreditClient> credits = creditRepository.streamAvecClient()) {
+                Iterator<CreditClient> it = credits.iterator();
+                while (it.hasNext()) {
+                    CreditClient ligne = it.next();
+                    nouvelles.ajouter(ligne.getCredit(), ligne.getVille(), ligne.getSecteur());
+                }
+            }
+            nouvelles.echeancesCompletes = echeanciersComplets();
+            try (Stream<Echeance> echeances = nouvelles.echeancesCompletes ? echeanceRepository.streamAll() : Stream.empty()) {
+                Iterator<Echeance> it = echeances.iterator();
+                while (it.hasNext()) {
+                    Echeance echeance = it.next();
+                    Integer ligne = nouvelles.lignes.get(echeance.getCreditId());
+                    if (ligne != null) {
+                        nouvelles.nombreEcheances[ligne]++;
+                        nouvelles.montantEcheances[ligne] += echeance.getMensualite();
+                        if (echeance.getDatePaiement() != null) {
+                            nouvelles.echeancesPayees[ligne]++;
+                        }
+                    }
+                }
+            }
+            try (Stream<UUID> incidents = incidentRepository.streamCreditIds()) {
+                Iterator<UUID> it = incidents.iterator();
+                while (it.hasNext()) {
+                    Integer ligne = nouvelles.lignes.get(it.next());
+                    if (ligne != null) {
+                        nouvelles.incidents[ligne]++;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            nouvelles = null;
+        }
+
+        verrou.writeLock().lock();
+        try {
+            if (nouvelles != null) {
+                colonnes = nouvelles;
+            }
+            synchronized (enAttente) {
+                enAttente.forEach(Runnable::run);
+                enAttente.clear();
+                chargementEnCours = false;
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ventiler une mesure selon des axes (roll-up: moins d'axes; slice/dice: filtre)
+     * @param mesure Mesure à sommer
+     * @param filtre Valeurs retenues par dimension (Filtre.aucun() pour tout le portefeuille)
+     * @param axes Dimensions de regroupement, éventuellement aucune (total)
+     * @return Cellules non vides, triées par codes de dimension
+     */
+    public Ventilation ventiler(Mesure mesure, Filtre filtre, Dimension... axes) {
+        verrou.readLock().lock();
+        try {
+            Colonnes c = colonnes;
+            if (mesure.porteSurEcheances() && !c.echeancesCompletes) {
+                throw new IllegalStateException("Mesure " + mesure + " indisponible: échéanciers stockés en mode VIRTUEL");
+            }
+            boolean[][] retenus = filtre.resoudre(c);
+            int[] cardinalites = new int[axes.length];
+            long cellules = 1;
+            for (int a = 0; a < axes.length; a++) {
+                cardinalites[a] = Math.max(1, c.cardinalite(axes[a]));
+                cellules *= cardinalites[a];
+            }
+
+            int nbBlocs = (c.taille + TAILLE_BLOC - 1) / TAILLE_BLOC;
+            Map<Long, double[]> cumuls = cellules <= CELLULES_DENSES_MAX
+                    ? balayerDense(c, mesure, retenus, axes, cardinalites, (int) cellules, nbBlocs)
+                    : balayerDisperse(c, mesure, retenus, axes, cardinalites, nbBlocs);
+            return new Ventilation(c, axes, cardinalites, cumuls);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private Map<Long, double[]> balayerDense(Colonnes c, Mesure mesure, boolean[][] retenus, Dimension[] axes,
+                                             int[] cardinalites, int cellules, int nbBlocs) {
+        double[][] partiels = IntStream.range(0, nbBlocs).parallel().mapToObj(b -> {
+            // [0, cellules): sommes; [cellules, 2 * cellules): nombres de lignes
+            double[] cumul = new double[2 * cellules];
+            int fin = Math.min(c.taille, (b + 1) * TAILLE_BLOC);
+            for (int ligne = b * TAILLE_BLOC; ligne < fin; ligne++) {
+                if (c.retenue(ligne, retenus)) {
+                    int cellule = (int) c.cellule(ligne, axes, cardinalites);
+                    cumul[cellule] += c.valeur(ligne, mesure);
+                    cumul[cellules + cellule]++;
+                }
+            }
+            return cumul;
+        }).toArray(double[][]::new);
+
+        Map<Long, double[]> cumuls = new HashMap<>();
+        for (int cellule = 0; cellule < cellules; cellule++) {
+            double somme = 0;
+            double nombre = 0;
+            for (double[] partiel : partiels) {
+                somme += partiel[cellule];
+                nombre += partiel[cellules + cellule];
+            }
+            if (nombre > 0) {
+                cumuls.put((long) cellule, new double[] {somme, nombre});
+            }
+        }
+        return cumuls;
+    }
+
+    private Map<Long, double[]> balayerDisperse(Colonnes c, Mesure mesure, boolean[][] retenus, Dimension[] axes,
+                                                int[] cardinalites, int nbBlocs) {
+        return IntStream.range(0, nbBlocs).parallel().mapToObj(b -> {
+            Map<Long, double[]> cumul = new HashMap<>();
+            int fin = Math.min(c.taille, (b + 1) * TAILLE_BLOC);
+            for (int ligne = b * TAILLE_BLOC; ligne < fin; ligne++) {
+                if (c.retenue(ligne, retenus)) {
+                    double[] cellule = cumul.computeIfAbsent(c.cellule(ligne, axes, cardinalites), k -> new double[2]);
+                    cellule[0] += c.valeur(ligne, mesure);
+                    cellule[1]++;
+                }
+            }
+            return cumul;
+        }).reduce(new HashMap<>(), (gauche, droite) -> {
+            Map<Long, double[]> fusion = new HashMap<>(gauche);
+            droite.forEach((cle, v) -> fusion.merge(cle, v, (x, y) -> new double[] {x[0] + y[0], x[1] + y[1]}));
+            return fusion;
+        });
+    }
+
+    private boolean echeanciersComplets() {
+        try {
+            echeanceRepository.exigerEcheanciersComplets("AnalyticsService");
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    public int getNombreCredits() {
+        verrou.readLock().lock();
+        try {
+            return colonnes.lignes.size();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void creditCree(Credit credit) {
+        enregistrer(credit);
+    }
+
+    @Override
+    public void creditModifie(Credit ancien, Credit nouveau) {
+        enregistrer(nouveau);
+    }
+
+    @Override
+    public void creditSupprime(Credit ancien) {
+        UUID id = ancien.getId();
+        appliquer(() -> colonnes.supprimer(id));
+    }
+
+    // Création ou modification: idempotent, pour pouvoir être rejoué après un chargement
+    // Un crédit sans type ou décision n'est pas ventilable (comme dans CompteursPortefeuille)
+    private void enregistrer(Credit credit) {
+        if (credit.getTypeCredit() == null || credit.getDecision() == null) {
+            return;
+        }
+        boolean connu;
+        verrou.readLock().lock();
+        try {
+            connu = colonnes.lignes.containsKey(credit.getId());
+        } finally {
+            verrou.readLock().unlock();
+        }
+        // Ville et secteur ne changent pas avec le crédit: relus seulement pour une nouvelle ligne
+        Optional<CreditClient> avecClient = connu ? Optional.empty() : creditRepository.findAvecClient(credit.getId());
+        String ville = avecClient.map(CreditClient::getVille).orElse(null);
+        String secteur = avecClient.map(CreditClient::getSecteur).orElse(null);
+        appliquer(() -> {
+            Integer ligne = colonnes.lignes.get(credit.getId());
+            if (ligne != null) {
+                colonnes.remplacer(ligne, credit);
+            } else {
+                colonnes.ajouter(credit, ville, secteur);
+            }
+        });
+    }
+
+    private void appliquer(Runnable miseAJour) {
+        synchronized (enAttente) {
+            if (chargementEnCours) {
+                enAttente.add(miseAJour);
+                return;
+            }
+        }
+        verrou.writeLock().lock();
+        try {
+            miseAJour.run();
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Dictionnaire valeur ↔ code d'une dimension ouverte (secteur, ville, mois)
+     */
+    private static final class Dictionnaire {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> valeurs = new ArrayList<>();
+
+        int coder(String valeur) {
+            Integer code = codes.get(valeur);
+            if (code == null) {
+                code = valeurs.size();
+                valeurs.add(valeur);
+                codes.put(valeur, code);
+            }
+            return code;
+        }
+
+        Integer chercher(String valeur) {
+            return codes.get(valeur);
+        }
+
+        String valeur(int code) {
+            return valeurs.get(code);
+        }
+
+        int taille() {
+            return valeurs.size();
+        }
+    }
+
+    /**
+     * Colonnes du cube; les lignes supprimées sont marquées et ignorées par les balayages, puis
+     * retirées par compactage quand elles dépassent le quart des lignes
+     */
+    private static final class Colonnes {
+        private static final int SUPPRIMEES_MIN_COMPACTAGE = 1024;
+
+        int taille;
+        int nombreSupprimees;
+        byte[] type;
+        byte[] decision;
+        int[] secteur;
+        int[] ville;
+        int[] mois;
+        double[] montantDemande;
+        double[] montantOctroye;
+        int[] nombreEcheances;
+        double[] montantEcheances;
+        int[] echeancesPayees;
+        int[] incidents;
+        boolean[] supprimee;
+        // false si la table echeances ne contient pas tous les échéanciers (mode VIRTUEL)
+        boolean echeancesCompletes = true;
+
+        final Map<UUID, Integer> lignes = new HashMap<>();
+        final Dictionnaire secteurs = new Dictionnaire();
+        final Dictionnaire villes = new Dictionnaire();
+        final Dictionnaire moisDictionnaire = new Dictionnaire();
+
+        Colonnes(int capacite) {
+            type = new byte[capacite];
+            decision = new byte[capacite];
+            secteur = new int[capacite];
+            ville = new int[capacite];
+            mois = new int[capacite];
+            montantDemande = new double[capacite];
+            montantOctroye = new double[capacite];
+            nombreEcheances = new int[capacite];
+            montantEcheances = new double[capacite];
+            echeancesPayees = new int[capacite];
+            incidents = new int[capacite];
+            supprimee = new boolean[capacite];
+        }
+
+        void ajouter(Credit credit, String villeClient, String secteurClient) {
+            if (taille == type.length) {
+                agrandir(taille * 2);
+            }
+            int ligne = taille++;
+            secteur[ligne] = secteurs.coder(secteurClient);
+            ville[ligne] = villes.coder(villeClient);
+            remplacer(ligne, credit);
+            lignes.put(credit.getId(), ligne);
+        }
+
+        void remplacer(int ligne, Credit credit) {
+            type[ligne] = (byte) credit.getTypeCredit().ordinal();
+            decision[ligne] = (byte) credit.getDecision().ordinal();
+            mois[ligne] = moisDictionnaire.coder(credit.getDateCredit() == null ? null
+                    : YearMonth.from(Instant.ofEpochMilli(credit.getDateCredit().getTime()).atZone(ZoneId.systemDefault())).toString());
+            montantDemande[ligne] = credit.getMontantDemande();
+            montantOctroye[ligne] = credit.getMontantOctroye();
+            supprimee[ligne] = false;
+        }
+
+        void supprimer(UUID creditId) {
+            Integer ligne = lignes.remove(creditId);
+            if (ligne != null) {
+                supprimee[ligne] = true;
+                nombreSupprimees++;
+                if (nombreSupprimees >= SUPPRIMEES_MIN_COMPACTAGE && nombreSupprimees * 4 > taille) {
+                    compacter();
+                }
+            }
+        }
+
+        // Décaler les lignes vivantes vers le début et renuméroter l'index; les codes de dictionnaire restent valides
+        private void compacter() {
+            int[] nouvelle = new int[taille];
+            int cible = 0;
+            for (int ligne = 0; ligne < taille; ligne++) {
+                if (supprimee[ligne]) {
+                    continue;
+                }
+                nouvelle[ligne] = cible;
+                if (cible != ligne) {
+                    type[cible] = type[ligne];
+                    decision[cible] = decision[ligne];
+                    secteur[cible] = secteur[ligne];
+                    ville[cible] = ville[ligne];
+                    mois[cible] = mois[ligne];
+                    montantDemande[cible] = montantDemande[ligne];
+                    montantOctroye[cible] = montantOctroye[ligne];
+                    nombreEcheances[cible] = nombreEcheances[ligne];
+                    montantEcheances[cible] = montantEcheances[ligne];
+                    echeancesPayees[cible] = echeancesPayees[ligne];
+                    incidents[cible] = incidents[ligne];
+                }
+                cible++;
+            }
+            for (Map.Entry<UUID, Integer> entree : lignes.entrySet()) {
+                entree.setValue(nouvelle[entree.getValue()]);
+            }
+            // ajouter() suppose des mesures d'échéances et d'incidents nulles au-delà de taille
+            Arrays.fill(nombreEcheances, cible, taille, 0);
+            Arrays.fill(montantEcheances, cible, taille, 0);
+            Arrays.fill(echeancesPayees, cible, taille, 0);
+            Arrays.fill(incidents, cible, taille, 0);
+            Arrays.fill(supprimee, 0, taille, false);
+            taille = cible;
+            nombreSupprimees = 0;
+        }
+
+        private void agrandir(int capacite) {
+            type = Arrays.copyOf(type, capacite);
+            decision = Arrays.copyOf(decision, capacite);
+            secteur = Arrays.copyOf(secteur, capacite);
+            ville = Arrays.copyOf(ville, capacite);
+            mois = Arrays.copyOf(mois, capacite);
+            montantDemande = Arrays.copyOf(montantDemande, capacite);
+            montantOctroye = Arrays.copyOf(montantOctroye, capacite);
+            nombreEcheances = Arrays.copyOf(nombreEcheances, capacite);
+            montantEcheances = Arrays.copyOf(montantEcheances, capacite);
+            echeancesPayees = Arrays.copyOf(echeancesPayees, capacite);
+            incidents = Arrays.copyOf(incidents, capacite);
+            supprimee = Arrays.copyOf(supprimee, capacite);
+        }
+
+        int code(int ligne, Dimension dimension) {
+            switch (dimension) {
+                case TYPE_CREDIT: return type[ligne];
+                case DECISION: return decision[ligne];
+                case SECTEUR: return secteur[ligne];
+                case VILLE: return ville[ligne];
+                default: return mois[ligne];
+            }
+        }
+
+        int cardinalite(Dimension dimension) {
+            switch (dimension) {
+                case TYPE_CREDIT: return TypeCredit.values().length;
+                case DECISION: return Decision.values().length;
+                case SECTEUR: return secteurs.taille();
+                case VILLE: return villes.taille();
+                default: return moisDictionnaire.taille();
+            }
+        }
+
+        Integer chercher(Dimension dimension, String valeur) {
+            switch (dimension) {
+                case TYPE_CREDIT: return ordinal(TypeCredit.values(), valeur);
+                case DECISION: return ordinal(Decision.values(), valeur);
+                case SECTEUR: return secteurs.chercher(valeur);
+                case VILLE: return villes.chercher(valeur);
+                default: return moisDictionnaire.chercher(valeur);
+            }
+        }
+
+        // Valeur inconnue: null, comme pour les dimensions ouvertes (le filtre ne retient alors rien)
+        private static Integer ordinal(Enum<?>[] valeurs, String valeur) {
+            for (Enum<?> e : valeurs) {
+                if (e.name().equals(valeur)) {
+                    return e.ordinal();
+                }
+            }
+            return null;
+        }
+
+        String libelle(Dimension dimension, int code) {
+            switch (dimension) {
+                case TYPE_CREDIT: return TypeCredit.values()[code].name();
+                case DECISION: return Decision.values()[code].name();
+                case SECTEUR: return secteurs.valeur(code);
+                case VILLE: return villes.valeur(code);
+                default: return moisDictionnaire.valeur(code);
+            }
+        }
+
+        double valeur(int ligne, Mesure mesure) {
+            switch (mesure) {
+                case MONTANT_DEMANDE: return montantDemande[ligne];
+                case MONTANT_OCTROYE: return montantOctroye[ligne];
+                case NOMBRE_ECHEANCES: return nombreEcheances[ligne];
+                case MONTANT_ECHEANCES: return montantEcheances[ligne];
+                case ECHEANCES_PAYEES: return echeancesPayees[ligne];
+                case INCIDENTS: return incidents[ligne];
+                default: return 1;
+            }
+        }
+
+        boolean retenue(int ligne, boolean[][] retenus) {
+            if (supprimee[ligne]) {
+                return false;
+            }
+            for (Dimension dimension : Dimension.values()) {
+                boolean[] codes = retenus[dimension.ordinal()];
+                if (codes != null && !codes[code(ligne, dimension)]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Index de cellule en base mixte (un chiffre par axe)
+        long cellule(int ligne, Dimension[] axes, int[] cardinalites) {
+            long cellule = 0;
+            for (int a = 0; a < axes.length; a++) {
+                cellule = cellule * cardinalites[a] + code(ligne, axes[a]);
+            }
+            return cellule;
+        }
+    }
+
+    /**
+     * Sélection de valeurs par dimension (slice: une valeur, dice: plusieurs)
+     */
+    public static final class Filtre {
+        private final Map<Dimension, String[]> valeurs = new EnumMap<>(Dimension.class);
+
+        private Filtre() {
+        }
+
+        public static Filtre aucun() {
+            return new Filtre();
+        }
+
+        public Filtre avec(Dimension dimension, String... retenues) {
+            valeurs.put(dimension, retenues);
+            return this;
+        }
+
+        // Codes retenus par dimension, null si la dimension n'est pas filtrée
+        private boolean[][] resoudre(Colonnes c) {
+            boolean[][] retenus = new boolean[Dimension.values().length][];
+            valeurs.forEach((dimension, liste) -> {
+                boolean[] codes = new boolean[c.cardinalite(dimension)];
+                for (String valeur : liste) {
+                    Integer code = c.chercher(dimension, valeur);
+                    if (code != null) {
+                        codes[code] = true;
+                    }
+                }
+                retenus[dimension.ordinal()] = codes;
+            });
+            return retenus;
+        }
+    }
+
+    public static class Ventilation {
+        private final Dimension[] axes;
+        private final String[][] cles;
+        private final double[] valeurs;
+        private final long[] nombres;
+
+        private Ventilation(Colonnes c, Dimension[] axes, int[] cardinalites, Map<Long, double[]> cumuls) {
+            this.axes = axes.clone();
+            long[] cellules = cumuls.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            this.cles = new String[cellules.length][axes.length];
+            this.valeurs = new double[cellules.length];
+            this.nombres = new long[cellules.length];
+            for (int i = 0; i < cellules.length; i++) {
+                long reste = cellules[i];
+                for (int a = axes.length - 1; a >= 0; a--) {
+                    cles[i][a] = c.libelle(axes[a], (int) (reste % cardinalites[a]));
+                    reste /= cardinalites[a];
+                }
+                double[] cumul = cumuls.get(cellules[i]);
+                valeurs[i] = cumul[0];
+                nombres[i] = (long) cumul[1];
+            }
+        }
+
+        public double total() {
+            double total = 0;
+            for (double valeur : valeurs) {
+                total += valeur;
+            }
+            return total;
+        }
+
+        // Getters
+        public Dimension[] getAxes() { return axes.clone(); }
+        public int getNombreCellules() { return valeurs.length; }
+        public String getCle(int cellule, int axe) { return cles[cellule][axe]; }
+        public double getValeur(int cellule) { return valeurs[cellule]; }
+        public long getNombreCredits(int cellule) { return nombres[cellule]; }
+        public double getMoyenne(int cellule) { return nombres[cellule] > 0 ? valeurs[cellule] / nombres[cellule] : 0; }
+    }
+}
@@ -0,0 +1,202 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.model.Credit;
+import com.microfinance.scoring.model.enums.Decision;
+import com.microfinance.scoring.repository.CreditRepository;
+import com.microfinance.scoring.repository.CreditRepository.AgregatDecision;
+import com.microfinance.scoring.repository.EcouteurCredits;
+import com.microfinance.scoring.repository.EvenementsCredits;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrégats du portefeuille tenus à jour au fil des écritures (Singleton)
+ * Un état de base, issu d'un GROUP BY decision, plus des deltas sans verrou alimentés par les
+ * événements de CreditRepository. La lecture coûte trois additions par décision, quelle que soit
+ * la taille du portefeuille. Une réconciliation périodique recharge la base depuis la table et
+ * corrige toute dérive; les écritures de crédits passent par UnitOfWork pour qu'elle soit exacte.
+ */
+public class CompteursPortefeuille implements EcouteurCredits {
+
+    private static CompteursPortefeuille instance = null;
+
+    private static final int NB_DECISIONS = Decision.values().length;
+
+    private final CreditRepository creditRepository;
+    private final long periodeReconciliationMs = Long.getLong("microfinance.stats.reconciliationMs", 300_000L);
+
+    private volatile Etat etat = new Etat(null, null, new Deltas());
+    private ScheduledExecutorService planificateur;
+
+    private CompteursPortefeuille() {
+        this.creditRepository = new CreditRepository();
+    }
+
+    public static synchronized CompteursPortefeuille getInstance() {
+        if (instance == null) {
+            instance = new CompteursPortefeuille();
+            // S'abonner avant l'amorçage: les écritures concurrentes tombent dans les deltas
+            EvenementsCredits.getInstance().abonner(instance);
+            instance.reconcilier();
+            instance.planifierReconciliation();
+        }
+        return instance;
+    }
+
+    /**
+     * Recharger la base depuis la table credits
+     * La bascule des deltas a lieu au moment où l'instantané SQL est ouvert, aucun commit n'étant en
+     * cours (voir CreditRepository.agregerParDecision): chaque écriture est comptée exactement une
+     * fois, soit par la base, soit par les nouveaux deltas. Les deltas mis de côté sont abandonnés
+     * une fois la nouvelle base publiée.
+     * @return true si la base a été rechargée
+     */
+    public synchronized boolean reconcilier() {
+        Deltas nouveaux = new Deltas();
+        try {
+            List<AgregatDecision> agregats = creditRepository.agregerParDecision(() -> {
+                Etat avant = etat;
+                // Après un échec, des deltas sont déjà de côté: les regrouper
+                Deltas misDeCote = avant.anciens == null ? avant.courants : avant.anciens.fusionner(avant.courants);
+                etat = new Etat(avant.base, misDeCote, nouveaux);
+            });
+            Base base = new Base();
+            for (AgregatDecision agregat : agregats) {
+                int i = agregat.getDecision().ordinal();
+                base.nombres[i] = agregat.getNombre();
+                base.montantsDemandes[i] = agregat.getMontantDemande();
+                base.montantsOctroyes[i] = agregat.getMontantOctroye();
+            }
+            etat = new Etat(base, null, nouveaux);
+            return true;
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            // Garder l'ancienne base: les deltas mis de côté restent comptés
+            return false;
+        }
+    }
+
+    /**
+     * true dès qu'une base a été chargée; sinon les compteurs ne couvrent que les écritures récentes
+     */
+    public boolean estInitialise() {
+        return etat.base != null;
+    }
+
+    public long getNombre(Decision decision) {
+        Etat e = etat;
+        int i = decision.ordinal();
+        long total = e.courants.nombres[i].sum();
+        if (e.anciens != null) {
+            total += e.anciens.nombres[i].sum();
+        }
+        return e.base != null ? total + e.base.nombres[i] : total;
+    }
+
+    public double getMontantDemande(Decision decision) {
+        Etat e = etat;
+        int i = decision.ordinal();
+        double total = e.courants.montantsDemandes[i].sum();
+        if (e.anciens != null) {
+            total += e.anciens.montantsDemandes[i].sum();
+        }
+        return e.base != null ? total + e.base.montantsDemandes[i] : total;
+    }
+
+    public double getMontantOctroye(Decision decision) {
+        Etat e = etat;
+        int i = decision.ordinal();
+        double total = e.courants.montantsOctroyes[i].sum();
+        if (e.anciens != null) {
+            total += e.anciens.montantsOctroyes[i].sum();
+        }
+        return e.base != null ? total + e.base.montantsOctroyes[i] : total;
+    }
+
+    @Override
+    public void creditCree(Credit credit) {
+        ajouter(credit, 1);
+    }
+
+    @Override
+    public void creditModifie(Credit ancien, Credit nouveau) {
+        ajouter(ancien, -1);
+        ajouter(nouveau, 1);
+    }
+
+    @Override
+    public void creditSupprime(Credit ancien) {
+        ajouter(ancien, -1);
+    }
+
+    private void ajouter(Credit credit, int signe) {
+        if (credit.getDecision() == null) {
+            return;
+        }
+        int i = credit.getDecision().ordinal();
+        Deltas deltas = etat.courants;
+        deltas.nombres[i].add(signe);
+        deltas.montantsDemandes[i].add(signe * credit.getMontantDemande());
+        deltas.montantsOctroyes[i].add(signe * credit.getMontantOctroye());
+    }
+
+    private void planifierReconciliation() {
+        if (periodeReconciliationMs <= 0) {
+            return;
+        }
+        planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "compteurs-portefeuille");
+            t.setDaemon(true);
+            return t;
+        });
+        planificateur.scheduleWithFixedDelay(this::reconcilier, periodeReconciliationMs,
+                periodeReconciliationMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Agrégats lus en base, immuables une fois publiés
+    private static final class Base {
+        final long[] nombres = new long[NB_DECISIONS];
+        final double[] montantsDemandes = new double[NB_DECISIONS];
+        final double[] montantsOctroyes = new double[NB_DECISIONS];
+    }
+
+    private static final class Deltas {
+        final LongAdder[] nombres = new LongAdder[NB_DECISIONS];
+        final DoubleAdder[] montantsDemandes = new DoubleAdder[NB_DECISIONS];
+        final DoubleAdder[] montantsOctroyes = new DoubleAdder[NB_DECISIONS];
+
+        Deltas() {
+            for (int i = 0; i < NB_DECISIONS; i++) {
+                nombres[i] = new LongAdder();
+                montantsDemandes[i] = new DoubleAdder();
+                montantsOctroyes[i] = new DoubleAdder();
+            }
+        }
+
+        Deltas fusionner(Deltas autres) {
+            for (int i = 0; i < NB_DECISIONS; i++) {
+                nombres[i].add(autres.nombres[i].sum());
+                montantsDemandes[i].add(autres.montantsDemandes[i].sum());
+                montantsOctroyes[i].add(autres.montantsOctroyes[i].sum());
+            }
+            return this;
+        }
+    }
+
+    // anciens: deltas mis de côté pendant une réconciliation, null sinon
+    private static final class Etat {
+        final Base base;
+        final Deltas anciens;
+        final Deltas courants;
+
+        Etat(Base base, Deltas anciens, Deltas courants) {
+            this.base = base;
+            this.anciens = anciens;
+            this.courants = courants;
+        }
+    }
+}
@@ -1,9 +1,24 @@
 package com.microfinance.scoring.service;
 
+import com.microfinance.scoring.config.UnitOfWork;
 import com.microfinance.scoring.model.*;
 import com.microfinance.scoring.model.enums.*;
 import com.microfinance.scoring.repository.*;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Service principal pour la gestion complète du workflow crédit
@@ -15,100 +30,293 @@ public class CreditService {
     private DecisionEngine decisionEngine;
     private CreditRepository creditRepository;
     private EcheanceRepository echeanceRepository;
-    private EmployeRepository employeRepository;
-    private ProfessionnelRepository professionnelRepository;
+    private PersonneRepository personneRepository;
+    private HistoriqueScoreRepository historiqueScoreRepository;
+    
+    // Étapes d'E/S bloquantes: un thread virtuel par étape
+    private static final ExecutorService EXECUTEUR_ETAPES = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private final long delaiEtapeMs = Long.getLong("microfinance.pipeline.stageTimeoutMs", 5_000L);
+    // Demandes persistées par transaction dans traiterDemandesCredit; les échéances d'un lot
+    // sont ensuite découpées par EcheanceRepository selon sa propre taille de lot
+    private final int tailleLotDemandes = Math.max(1, Integer.getInteger("microfinance.demandes.batchSize", 500));
+    private final TempsEtapes tempsEtapes = new TempsEtapes();
     
     public CreditService() {
         this.scoringService = new ScoringService();
         this.decisionEngine = new DecisionEngine();
         this.creditRepository = new CreditRepository();
         this.echeanceRepository = new EcheanceRepository();
-        this.employeRepository = new EmployeRepository();
-        this.professionnelRepository = new ProfessionnelRepository();
+        this.personneRepository = new PersonneRepository();
+        this.historiqueScoreRepository = new HistoriqueScoreRepository();
     }
     
 
     private Optional<Personne> findClientById(UUID clientId) {
-        Optional<Employe> employe = employeRepository.findById(clientId);
-        if (employe.isPresent()) {
-            return Optional.of(employe.get());
-        }
-
-        Optional<Professionnel> professionnel = professionnelRepository.findById(clientId);
-        if (professionnel.isPresent()) {
-            return Optional.of(professionnel.get());
-        }
-        
-        return Optional.empty();
+        return personneRepository.findById(clientId);
     }
     
 
 
+    /**
+     * Traiter une demande de crédit
+     * Graphe d'étapes asynchrones: la recherche du client et la lecture de son historique de crédits
+     * sont indépendantes et s'exécutent en parallèle; l'évaluation attend les deux, la persistance
+     * suit l'évaluation. Chaque étape de lecture a son délai (microfinance.pipeline.stageTimeoutMs);
+     * la persistance n'en a pas, pour ne jamais signaler en échec une transaction qui aboutit.
+     * Les étapes tournent hors du thread appelant: elles ne rejoignent pas une UnitOfWork ouverte par celui-ci.
+     */
     public ResultatDemandeCredit traiterDemandeCredit(UUID clientId, double montantDemande, int dureeMois, TypeCredit typeCredit) {
+        long debut = System.nanoTime();
         try {
-            Optional<Personne> optionalClient = findClientById(clientId);
-            if (!optionalClient.isPresent()) {
-                return new ResultatDemandeCredit(false, "Client non trouvé", null, null);
-            }
-            
-            Personne client = optionalClient.get();
+            // 1-2. Client et historique de crédits, en parallèle
+            CompletableFuture<Optional<Personne>> client = etape(TempsEtapes.Etape.RECHERCHE_CLIENT,
+                    () -> findClientById(clientId), delaiEtapeMs);
+            CompletableFuture<Boolean> clientExistant = etape(TempsEtapes.Etape.HISTORIQUE_CREDITS,
+                    () -> creditRepository.existsByClientId(clientId), delaiEtapeMs);
             
-            // 2. Vérifier si client existant (a déjà des crédits)
-            List<Credit> creditsExistants = creditRepository.findByClientId(clientId);
-            boolean isExistingClient = !creditsExistants.isEmpty();
+            return client.thenCombine(clientExistant, (optionalClient, isExistingClient) -> {
+                        if (!optionalClient.isPresent()) {
+                            return null;
+                        }
+                        // 3-6. Évaluer la demande en une seule passe: score, capacité, décision, montant et taux
+                        long debutEvaluation = System.nanoTime();
+                        EvaluationCredit evaluation = decisionEngine.evaluer(optionalClient.get(), montantDemande, typeCredit, dureeMois, isExistingClient);
+                        tempsEtapes.enregistrer(TempsEtapes.Etape.EVALUATION, System.nanoTime() - debutEvaluation);
+                        return evaluation;
+                    })
+                    .thenCompose(evaluation -> {
+                        if (evaluation == null) {
+                            return CompletableFuture.completedFuture(new ResultatDemandeCredit(false, "Client non trouvé", null, null));
+                        }
+                        if (!evaluation.isCriteresSpeciauxRespectes()) {
+                            return CompletableFuture.completedFuture(
+                                    new ResultatDemandeCredit(false, "Critères spéciaux non respectés pour ce type de crédit", null, null));
+                        }
+                        if (evaluation.getDecision() == Decision.REFUS_AUTOMATIQUE) {
+                            return CompletableFuture.completedFuture(
+                                    new ResultatDemandeCredit(false, "Demande refusée automatiquement", null, evaluation.getRapport()));
+                        }
+                        // 7-9. Créer et persister le crédit
+                        return etape(TempsEtapes.Etape.PERSISTANCE,
+                                () -> persister(clientId, client.join().get(), montantDemande, dureeMois, typeCredit, evaluation), 0);
+                    })
+                    .join();
             
-            // 3. Valider les critères spéciaux selon le type de crédit
-            if (!decisionEngine.validerCriteresSpeciaux(client, typeCredit, montantDemande)) {
-                return new ResultatDemandeCredit(false, "Critères spéciaux non respectés pour ce type de crédit", null, null);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return new ResultatDemandeCredit(false, "Erreur lors du traitement: " + cause.getMessage(), null, null);
+        } finally {
+            tempsEtapes.enregistrer(TempsEtapes.Etape.TOTAL, System.nanoTime() - debut);
+        }
+    }
+    
+    private ResultatDemandeCredit persister(UUID clientId, Personne client, double montantDemande, int dureeMois,
+                                            TypeCredit typeCredit, EvaluationCredit evaluation) {
+        Decision decision = evaluation.getDecision();
+        
+        // 7. Créer l'objet crédit
+        Credit nouveauCredit = new Credit(
+            new Date(), // Date de création
+            montantDemande,
+            evaluation.getMontantOctroye(),
+            evaluation.getTauxInteret(),
+            dureeMois,
+            typeCredit,
+            decision,
+            new ArrayList<>() // Liste d'échéances vide pour l'instant
+        );
+        
+        nouveauCredit.setClientId(clientId);
+        
+        // 8-9. Sauvegarder le crédit, ses échéances et l'historique de score en une seule transaction
+        try {
+            UnitOfWork.executer(() -> {
+                if (!creditRepository.save(nouveauCredit)) {
+                    throw new SQLException("Erreur lors de la sauvegarde du crédit");
+                }
+                
+                if (decision == Decision.ACCORD_IMMEDIAT) {
+                    List<Echeance> echeances = genererEcheances(nouveauCredit);
+                    if (!echeanceRepository.saveEcheancier(planDe(nouveauCredit), echeances)) {
+                        throw new SQLException("Erreur lors de la sauvegarde des échéances");
+                    }
+                    nouveauCredit.setEcheances(echeances);
+                }
+                
+                if (!historiqueScoreRepository.save(clientId, client.getScore(), evaluation.getScore(),
+                        "Demande de crédit: " + decision, nouveauCredit.getId())) {
+                    throw new SQLException("Erreur lors de l'enregistrement de l'historique de score");
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+        
+        return new ResultatDemandeCredit(true, "Demande traitée avec succès", nouveauCredit, evaluation.getRapport());
+    }
+    
+    // Lancer une étape bloquante sur un thread virtuel, chronométrée, avec un délai optionnel (0 = aucun)
+    // À l'expiration du délai, le thread de l'étape est interrompu: un thread virtuel bloqué dans une
+    // lecture socket voit celle-ci fermée, la requête est abandonnée et le pool détruit la connexion
+    // au lieu de la garder empruntée jusqu'à la fin de la requête.
+    private <T> CompletableFuture<T> etape(TempsEtapes.Etape etape, Supplier<T> travail, long delaiMs) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Future<?> tache = EXECUTEUR_ETAPES.submit(() -> {
+            long debut = System.nanoTime();
+            try {
+                future.complete(travail.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                tempsEtapes.enregistrer(etape, System.nanoTime() - debut);
             }
-            
-            // 4. Calculer le score et prendre la décision
-            Decision decision = decisionEngine.prendreDecision(client, montantDemande, typeCredit, isExistingClient);
-            
-            // 5. Si refus, arrêter le processus
-            if (decision == Decision.REFUS_AUTOMATIQUE) {
-                String rapport = decisionEngine.genererRapportDecision(client, montantDemande, typeCredit, isExistingClient);
-                return new ResultatDemandeCredit(false, "Demande refusée automatiquement", null, rapport);
+        });
+        
+        if (delaiMs <= 0) {
+            return future;
+        }
+        return future.orTimeout(delaiMs, TimeUnit.MILLISECONDS).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                tache.cancel(true);
+                throw new CompletionException(new TimeoutException("Délai dépassé pour l'étape " + etape + " (" + delaiMs + " ms)"));
             }
-            
-            // 6. Calculer montant octroyé et taux
-            double montantOctroye = decisionEngine.calculerMontantOctroye(client, montantDemande, decision, isExistingClient);
-            double tauxInteret = decisionEngine.calculerTauxInteret(client, typeCredit, decision, isExistingClient);
-            
-            // 7. Créer l'objet crédit
-            Credit nouveauCredit = new Credit(
-                new Date(), // Date de création
-                montantDemande,
-                montantOctroye,
-                tauxInteret,
-                dureeMois,
-                typeCredit,
-                decision,
-                new ArrayList<>() // Liste d'échéances vide pour l'instant
-            );
-            
-            // 8. Sauvegarder le crédit
-            boolean creditSauvegarde = creditRepository.save(nouveauCredit);
-            if (!creditSauvegarde) {
-                return new ResultatDemandeCredit(false, "Erreur lors de la sauvegarde du crédit", null, null);
+            throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(cause);
+        });
+    }
+    
+    /**
+     * Temps cumulés par étape de traiterDemandeCredit
+     */
+    public TempsEtapes getTempsEtapes() {
+        return tempsEtapes;
+    }
+    
+    /**
+     * Traiter un lot de demandes de crédit (dépôt groupé des agents partenaires)
+     * Les clients et leur statut "client existant" sont résolus en requêtes ensemblistes, les demandes
+     * évaluées en parallèle, puis les crédits, échéances et historiques écrits par lots transactionnels.
+     * Le statut "client existant" est celui du début du lot: deux demandes d'un même nouveau client
+     * sont toutes deux évaluées comme nouveau client.
+     * @param demandes Demandes à traiter
+     * @return Un résultat par demande, dans l'ordre des demandes
+     * @throws RuntimeException si le statut des clients ou leurs incidents ne peuvent être lus (rien n'est écrit)
+     */
+    public List<ResultatDemandeCredit> traiterDemandesCredit(List<DemandeCredit> demandes) {
+        int n = demandes.size();
+        ResultatDemandeCredit[] resultats = new ResultatDemandeCredit[n];
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        
+        // 1-2. Résoudre tous les clients et leur statut en deux requêtes
+        Set<UUID> clientIds = new HashSet<>();
+        for (DemandeCredit demande : demandes) {
+            clientIds.add(demande.getClientId());
+        }
+        Map<UUID, Personne> clients = personneRepository.findByIds(clientIds);
+        Set<UUID> clientsExistants = creditRepository.findClientIdsAvecCredits(clientIds);
+        
+        // 3-7. Évaluer chaque demande en parallèle; les crédits à créer restent à leur position
+        Credit[] nouveauxCredits = new Credit[n];
+        EvaluationCredit[] evaluations = new EvaluationCredit[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            DemandeCredit demande = demandes.get(i);
+            Personne client = clients.get(demande.getClientId());
+            if (client == null) {
+                resultats[i] = new ResultatDemandeCredit(false, "Client non trouvé", null, null);
+                return;
             }
             
-            // 9. Générer les échéances si accord immédiat
-            if (decision == Decision.ACCORD_IMMEDIAT) {
-                List<Echeance> echeances = genererEcheances(nouveauCredit);
-                for (Echeance echeance : echeances) {
-                    echeanceRepository.save(echeance);
+            EvaluationCredit evaluation = decisionEngine.evaluer(client, demande.getMontantDemande(),
+                    demande.getTypeCredit(), demande.getDureeMois(), clientsExistants.contains(demande.getClientId()));
+            
+            if (!evaluation.isCriteresSpeciauxRespectes()) {
+                resultats[i] = new ResultatDemandeCredit(false, "Critères spéciaux non respectés pour ce type de crédit", null, null);
+            } else if (evaluation.getDecision() == Decision.REFUS_AUTOMATIQUE) {
+                resultats[i] = new ResultatDemandeCredit(false, "Demande refusée automatiquement", null, evaluation.getRapport());
+            } else {
+                Credit credit = new Credit(new Date(), demande.getMontantDemande(), evaluation.getMontantOctroye(),
+                        evaluation.getTauxInteret(), demande.getDureeMois(), demande.getTypeCredit(),
+                        evaluation.getDecision(), new ArrayList<>());
+                credit.setClientId(demande.getClientId());
+                if (evaluation.getDecision() == Decision.ACCORD_IMMEDIAT) {
+                    credit.setEcheances(genererEcheances(credit));
                 }
-                nouveauCredit.setEcheances(echeances);
+                nouveauxCredits[i] = credit;
+                evaluations[i] = evaluation;
             }
+        });
+        
+        // 8-9. Persister par lots, chaque lot dans sa propre transaction
+        List<Integer> positions = new ArrayList<>(tailleLotDemandes);
+        for (int i = 0; i < n; i++) {
+            if (nouveauxCredits[i] != null) {
+                positions.add(i);
+            }
+            if (positions.size() == tailleLotDemandes || (i == n - 1 && !positions.isEmpty())) {
+                persisterLot(positions, demandes, clients, nouveauxCredits, evaluations, resultats);
+                positions.clear();
+            }
+        }
+        
+        return Arrays.asList(resultats);
+    }
+    
+    private void persisterLot(List<Integer> positions, List<DemandeCredit> demandes, Map<UUID, Personne> clients,
+                              Credit[] nouveauxCredits, EvaluationCredit[] evaluations, ResultatDemandeCredit[] resultats) {
+        int nombre = positions.size();
+        List<Credit> credits = new ArrayList<>(nombre);
+        List<Echeance> echeances = new ArrayList<>();
+        List<PlanRemboursement> plans = new ArrayList<>();
+        UUID[] clientIds = new UUID[nombre];
+        UUID[] creditIds = new UUID[nombre];
+        int[] anciensScores = new int[nombre];
+        int[] nouveauxScores = new int[nombre];
+        String[] motifs = new String[nombre];
+        
+        for (int k = 0; k < nombre; k++) {
+            int i = positions.get(k);
+            Credit credit = nouveauxCredits[i];
+            credits.add(credit);
+            if (credit.getDecision() == Decision.ACCORD_IMMEDIAT) {
+                echeances.addAll(credit.getEcheances());
+                plans.add(planDe(credit));
+            }
+            clientIds[k] = credit.getClientId();
+            creditIds[k] = credit.getId();
+            anciensScores[k] = clients.get(demandes.get(i).getClientId()).getScore();
+            nouveauxScores[k] = evaluations[i].getScore();
+            motifs[k] = "Demande de crédit: " + credit.getDecision();
+        }
+        
+        try {
+            UnitOfWork.executer(() -> {
+                if (!creditRepository.saveAll(credits)) {
+                    throw new SQLException("Erreur lors de la sauvegarde des crédits");
+                }
+                boolean echeancierSauve = echeanceRepository.getModeStockage() == EcheanceRepository.ModeStockage.VIRTUEL
+                        ? echeanceRepository.savePlans(plans)
+                        : echeanceRepository.saveAll(echeances);
+                if (!echeancierSauve) {
+                    throw new SQLException("Erreur lors de la sauvegarde des échéances");
+                }
+                if (!historiqueScoreRepository.saveAll(clientIds, anciensScores, nouveauxScores, motifs, creditIds, nombre)) {
+                    throw new SQLException("Erreur lors de l'enregistrement de l'historique de score");
+                }
+                return null;
+            });
             
-            // 10. Générer le rapport final
-            String rapport = decisionEngine.genererRapportDecision(client, montantDemande, typeCredit, isExistingClient);
-            
-            return new ResultatDemandeCredit(true, "Demande traitée avec succès", nouveauCredit, rapport);
+            for (int i : positions) {
+                resultats[i] = new ResultatDemandeCredit(true, "Demande traitée avec succès", nouveauxCredits[i], evaluations[i].getRapport());
+            }
             
-        } catch (Exception e) {
-            return new ResultatDemandeCredit(false, "Erreur lors du traitement: " + e.getMessage(), null, null);
+        } catch (SQLException e) {
+            for (int i : positions) {
+                resultats[i] = new ResultatDemandeCredit(false, "Erreur lors du traitement: " + e.getMessage(), null, null);
+            }
         }
     }
     
@@ -118,37 +326,42 @@ public class CreditService {
      * @return Liste des échéances
      */
     public List<Echeance> genererEcheances(Credit credit) {
-        List<Echeance> echeances = new ArrayList<>();
-        
-        double montant = credit.getMontantOctroye();
-        double tauxMensuel = credit.getTauxInteret() / 12 / 100; // Taux mensuel
-        int nombreEcheances = credit.getDureeMois();
-        
-        // Calcul de la mensualité avec formule des annuités
-        double mensualite = (montant * tauxMensuel) / (1 - Math.pow(1 + tauxMensuel, -nombreEcheances));
-        
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(credit.getDateCredit());
-        
-        for (int i = 1; i <= nombreEcheances; i++) {
-            cal.add(Calendar.MONTH, 1); // Ajouter un mois
-            
-            Echeance echeance = new Echeance(
-                cal.getTime(), // Date d'échéance
-                mensualite,
-                null, // Pas encore payée
-                "EN_ATTENTE", // Statut initial
-                new ArrayList<>() // Liste d'incidents vide
-            );
-            
-            echeances.add(echeance);
+        return genererEcheances(planDe(credit));
+    }
+    
+    private List<Echeance> genererEcheances(PlanRemboursement plan) {
+        List<Echeance> echeances = calculerTableauAmortissement(plan).versEcheances(plan.getCreditId());
+        if (echeanceRepository.getModeStockage() == EcheanceRepository.ModeStockage.VIRTUEL) {
+            // Identifiant stable d'une échéance virtuelle: le même à chaque régénération
+            for (Echeance echeance : echeances) {
+                echeance.setId(TableauAmortissement.identifiantEcheance(plan.getCreditId(), echeance.getNumero()));
+            }
         }
-        
         return echeances;
     }
     
+    /**
+     * Calculer le tableau d'amortissement d'un crédit (capital, intérêts, capital restant)
+     * @param credit Le crédit
+     * @return Tableau d'amortissement
+     */
+    public TableauAmortissement calculerTableauAmortissement(Credit credit) {
+        return calculerTableauAmortissement(planDe(credit));
+    }
+    
+    private TableauAmortissement calculerTableauAmortissement(PlanRemboursement plan) {
+        return TableauAmortissement.calculer(plan.getMontant(), plan.getTauxInteret(), plan.getDureeMois(), plan.getDateDebut());
+    }
+    
+    private PlanRemboursement planDe(Credit credit) {
+        LocalDate dateCredit = LocalDate.ofInstant(Instant.ofEpochMilli(credit.getDateCredit().getTime()), ZoneId.systemDefault());
+        return new PlanRemboursement(credit.getId(), credit.getMontantOctroye(), credit.getTauxInteret(), credit.getDureeMois(), dateCredit);
+    }
+    
     /**
      * Consulter un crédit avec ses échéances
+     * En stockage VIRTUEL, l'échéancier est régénéré depuis ses paramètres et les lignes stockées
+     * (paiements, retards) remplacent les échéances théoriques de même numéro.
      * @param creditId ID du crédit
      * @return Crédit avec échéances ou null si non trouvé
      */
@@ -157,13 +370,29 @@ public class CreditService {
         if (optionalCredit.isPresent()) {
             Credit credit = optionalCredit.get();
             // Charger les échéances
-            List<Echeance> echeances = echeanceRepository.findByCreditId(creditId);
-            credit.setEcheances(echeances);
+            List<Echeance> stockees = echeanceRepository.findByCreditId(creditId);
+            Optional<PlanRemboursement> plan = echeanceRepository.findPlan(creditId);
+            credit.setEcheances(plan.isPresent() ? fusionnerEcheancier(plan.get(), stockees) : stockees);
             return credit;
         }
         return null;
     }
     
+    private List<Echeance> fusionnerEcheancier(PlanRemboursement plan, List<Echeance> stockees) {
+        List<Echeance> echeances = calculerTableauAmortissement(plan).versEcheances(plan.getCreditId());
+        for (Echeance echeance : echeances) {
+            // Les plans ne sont stockés qu'en mode VIRTUEL: identifiants stables quel que soit le mode courant
+            echeance.setId(TableauAmortissement.identifiantEcheance(plan.getCreditId(), echeance.getNumero()));
+        }
+        for (Echeance stockee : stockees) {
+            int index = stockee.getNumero() - 1;
+            if (index >= 0 && index < echeances.size()) {
+                echeances.set(index, stockee);
+            }
+        }
+        return echeances;
+    }
+    
     /**
      * Lister tous les crédits d'un client
      * @param clientId ID du client
@@ -181,6 +410,16 @@ public class CreditService {
         return creditRepository.findByDecision("ETUDE_MANUELLE");
     }
     
+    /**
+     * Lister une page de la file d'étude manuelle
+     * @param taillePage Nombre de crédits par page
+     * @param curseur Curseur de la page précédente, null pour la première
+     * @return Page de crédits en étude manuelle
+     */
+    public Page<Credit> listerCreditsEtudeManuelle(int taillePage, String curseur) {
+        return creditRepository.findByDecision("ETUDE_MANUELLE", taillePage, curseur);
+    }
+    
     /**
      * Approuver manuellement un crédit en étude
      * @param creditId ID du crédit
@@ -198,18 +437,19 @@ public class CreditService {
             credit.setTauxInteret(tauxApprouve);
             credit.setDecision(Decision.ACCORD_IMMEDIAT);
             
-            // Sauvegarder
-            boolean success = creditRepository.update(credit);
-            
-            if (success) {
-                // Générer les échéances
-                List<Echeance> echeances = genererEcheances(credit);
-                for (Echeance echeance : echeances) {
-                    echeanceRepository.save(echeance);
-                }
+            // Sauvegarder le crédit et générer les échéances dans la même transaction
+            try {
+                return UnitOfWork.executer(() -> {
+                    if (!creditRepository.update(credit) || !echeanceRepository.saveEcheancier(planDe(credit), genererEcheances(credit))) {
+                        UnitOfWork.marquerRollback();
+                        return false;
+                    }
+                    return true;
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+                return false;
             }
-            
-            return success;
         }
         return false;
     }
@@ -233,32 +473,68 @@ public class CreditService {
     
     /**
      * Calculer les statistiques de portefeuille
+     * Lues dans les compteurs incrémentaux (coût constant); parcours complet de la table
+     * uniquement si les compteurs n'ont jamais pu être amorcés. Les compteurs sont exacts pour les
+     * écritures passant par CreditRepository; une écriture SQL directe n'est prise en compte qu'à
+     * la réconciliation suivante (microfinance.stats.reconciliationMs).
      * @return Statistiques du portefeuille de crédits
      */
     public StatistiquesPortefeuille calculerStatistiquesPortefeuille() {
-        List<Credit> tousCredits = creditRepository.findAll();
+        CompteursPortefeuille compteurs = CompteursPortefeuille.getInstance();
+        if (!compteurs.estInitialise()) {
+            return calculerStatistiquesParParcours();
+        }
+        
+        int accordsImmediats = (int) compteurs.getNombre(Decision.ACCORD_IMMEDIAT);
+        int etudesManuelle = (int) compteurs.getNombre(Decision.ETUDE_MANUELLE);
+        int refus = (int) compteurs.getNombre(Decision.REFUS_AUTOMATIQUE);
+        int totalCredits = accordsImmediats + etudesManuelle + refus;
+        double montantTotalOctroye = 0;
+        double montantTotalDemande = 0;
+        for (Decision decision : Decision.values()) {
+            montantTotalOctroye += compteurs.getMontantOctroye(decision);
+            montantTotalDemande += compteurs.getMontantDemande(decision);
+        }
         
-        int totalCredits = tousCredits.size();
+        return new StatistiquesPortefeuille(
+            totalCredits,
+            accordsImmediats,
+            etudesManuelle,
+            refus,
+            montantTotalOctroye,
+            montantTotalDemande,
+            totalCredits > 0 ? (double) accordsImmediats / totalCredits * 100 : 0
+        );
+    }
+    
+    private StatistiquesPortefeuille calculerStatistiquesParParcours() {
+        int totalCredits = 0;
         int accordsImmediats = 0;
         int etudesManuelle = 0;
         int refus = 0;
         double montantTotalOctroye = 0;
         double montantTotalDemande = 0;
         
-        for (Credit credit : tousCredits) {
-            montantTotalDemande += credit.getMontantDemande();
-            montantTotalOctroye += credit.getMontantOctroye();
-            
-            switch (credit.getDecision()) {
-                case ACCORD_IMMEDIAT:
-                    accordsImmediats++;
-                    break;
-                case ETUDE_MANUELLE:
-                    etudesManuelle++;
-                    break;
-                case REFUS_AUTOMATIQUE:
-                    refus++;
-                    break;
+        // Parcours en streaming: la mémoire ne dépend pas de la taille du portefeuille
+        try (Stream<Credit> tousCredits = creditRepository.streamAll()) {
+            Iterator<Credit> it = tousCredits.iterator();
+            while (it.hasNext()) {
+                Credit credit = it.next();
+                totalCredits++;
+                montantTotalDemande += credit.getMontantDemande();
+                montantTotalOctroye += credit.getMontantOctroye();
+                
+                switch (credit.getDecision()) {
+                    case ACCORD_IMMEDIAT:
+                        accordsImmediats++;
+                        break;
+                    case ETUDE_MANUELLE:
+                        etudesManuelle++;
+                        break;
+                    case REFUS_AUTOMATIQUE:
+                        refus++;
+                        break;
+                }
             }
         }
         
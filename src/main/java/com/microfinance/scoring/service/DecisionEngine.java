@@ -17,6 +17,45 @@ public class DecisionEngine {
         this.scoringService = new ScoringService();
     }
     
+    /**
+     * Évaluer une demande de crédit en une seule passe
+     * Le profil est extrait, le score, le taux et la capacité calculés une seule fois; décision,
+     * montant et rapport en sont dérivés. La durée ne sert qu'à la mensualité estimée du rapport.
+     * @param personne Le demandeur
+     * @param montantDemande Montant demandé
+     * @param typeCredit Type de crédit
+     * @param dureeMois Durée demandée en mois (0 si inconnue: pas de mensualité estimée)
+     * @param isExistingClient true si client existant
+     * @return Évaluation complète et immuable
+     */
+    public EvaluationCredit evaluer(Personne personne, double montantDemande, TypeCredit typeCredit, int dureeMois,
+                                   boolean isExistingClient) {
+        ProfilScoring profil = scoringService.extraireProfil(personne);
+        int[] composantes = scoringService.calculerComposantes(profil, isExistingClient);
+        int score = scoringService.calculerScoreGlobal(composantes);
+        double tauxInteret = tauxInteret(score, typeCredit, isExistingClient);
+        double capaciteMax = scoringService.calculerCapaciteEmprunt(profil.getRevenu(), score, isExistingClient);
+
+        boolean criteresRespectes = validerCriteresSpeciaux(profil, typeCredit, montantDemande);
+        Decision decision = decider(score, capaciteMax, montantDemande, isExistingClient);
+        double montantOctroye = montantOctroye(score, capaciteMax, montantDemande, decision);
+        double mensualite = decision != Decision.REFUS_AUTOMATIQUE && dureeMois > 0
+                ? simulerMensualite(montantOctroye, typeCredit, dureeMois, score, isExistingClient) : 0;
+
+        String rapport = genererRapport(personne, isExistingClient, score, capaciteMax, montantDemande,
+                decision, montantOctroye, tauxInteret, mensualite);
+
+        return new EvaluationCredit(composantes, score, isExistingClient, criteresRespectes, typeCredit,
+                montantDemande, capaciteMax, decision, montantOctroye, tauxInteret, rapport);
+    }
+
+    /**
+     * Évaluer une demande dont la durée n'est pas connue (décision identique, sans mensualité estimée)
+     */
+    public EvaluationCredit evaluer(Personne personne, double montantDemande, TypeCredit typeCredit, boolean isExistingClient) {
+        return evaluer(personne, montantDemande, typeCredit, 0, isExistingClient);
+    }
+
     /**
      * Prendre une décision automatique sur une demande de crédit
      * @param personne Le demandeur
@@ -26,16 +65,84 @@ public class DecisionEngine {
      * @return Décision automatique
      */
     public Decision prendreDecision(Personne personne, double montantDemande, TypeCredit typeCredit, boolean isExistingClient) {
-        // Calcul du score
-//        int score = scoringService.calculerScoreGlobal(personne, isExistingClient);
-        int score=0;
+        return evaluer(personne, montantDemande, typeCredit, isExistingClient).getDecision();
+    }
+    
+    /**
+     * Calculer le montant à octroyer selon la décision et le profil
+     * @param personne Le demandeur
+     * @param montantDemande Montant demandé
+     * @param decision Décision prise
+     * @param isExistingClient true si client existant
+     * @return Montant à octroyer
+     */
+    public double calculerMontantOctroye(Personne personne, double montantDemande, Decision decision, boolean isExistingClient) {
+        if (decision == Decision.REFUS_AUTOMATIQUE) {
+            return 0;
+        }
+        
+        ProfilScoring profil = scoringService.extraireProfil(personne);
+        int score = scoringService.calculerScoreGlobal(profil, isExistingClient);
+        double capaciteMax = scoringService.calculerCapaciteEmprunt(profil.getRevenu(), score, isExistingClient);
+        return montantOctroye(score, capaciteMax, montantDemande, decision);
+    }
+    
+    /**
+     * Calculer le taux d'intérêt selon le profil de risque
+     * @param personne Le demandeur
+     * @param typeCredit Type de crédit
+     * @param decision Décision prise
+     * @param isExistingClient true si client existant
+     * @return Taux d'intérêt annuel
+     */
+    public double calculerTauxInteret(Personne personne, TypeCredit typeCredit, Decision decision, boolean isExistingClient) {
+        return tauxInteret(scoringService.calculerScoreGlobal(personne, isExistingClient), typeCredit, isExistingClient);
+    }
+    
+    /**
+     * Valider les critères spéciaux selon le type de crédit
+     * @param personne Le demandeur
+     * @param typeCredit Type de crédit
+     * @param montantDemande Montant demandé
+     * @return true si critères respectés
+     */
+    public boolean validerCriteresSpeciaux(Personne personne, TypeCredit typeCredit, double montantDemande) {
+        return validerCriteresSpeciaux(scoringService.extraireProfil(personne), typeCredit, montantDemande);
+    }
+    
+    /**
+     * Générer un rapport de décision détaillé
+     * @param personne Le demandeur
+     * @param montantDemande Montant demandé
+     * @param typeCredit Type de crédit
+     * @param isExistingClient true si client existant
+     * @return Rapport textuel
+     */
+    public String genererRapportDecision(Personne personne, double montantDemande, TypeCredit typeCredit, boolean isExistingClient) {
+        return evaluer(personne, montantDemande, typeCredit, isExistingClient).getRapport();
+    }
+    
+    /**
+     * Simuler la mensualité d'une offre (devis), sans persistance
+     * @param montant Montant envisagé
+     * @param typeCredit Type de crédit
+     * @param dureeMois Durée en mois
+     * @param score Score du client
+     * @param isExistingClient true si client existant
+     * @return Mensualité estimée
+     */
+    public double simulerMensualite(double montant, TypeCredit typeCredit, int dureeMois, int score, boolean isExistingClient) {
+        return TableFacteursAnnuite.mensualite(montant, tauxInteret(score, typeCredit, isExistingClient), dureeMois);
+    }
+    
+    // Règles de décision sur des valeurs déjà calculées
+    private Decision decider(int score, double capaciteMax, double montantDemande, boolean isExistingClient) {
         // Vérification de l'éligibilité de base
         if (!scoringService.isEligible(score, isExistingClient)) {
             return Decision.REFUS_AUTOMATIQUE;
         }
         
         // Vérification de la capacité d'emprunt
-        double capaciteMax = scoringService.calculerCapaciteEmprunt(personne, isExistingClient);
         if (montantDemande > capaciteMax) {
             return Decision.REFUS_AUTOMATIQUE;
         }
@@ -50,22 +157,11 @@ public class DecisionEngine {
         }
     }
     
-    /**
-     * Calculer le montant à octroyer selon la décision et le profil
-     * @param personne Le demandeur
-     * @param montantDemande Montant demandé
-     * @param decision Décision prise
-     * @param isExistingClient true si client existant
-     * @return Montant à octroyer
-     */
-    public double calculerMontantOctroye(Personne personne, double montantDemande, Decision decision, boolean isExistingClient) {
+    private double montantOctroye(int score, double capaciteMax, double montantDemande, Decision decision) {
         if (decision == Decision.REFUS_AUTOMATIQUE) {
             return 0;
         }
         
-        double capaciteMax = scoringService.calculerCapaciteEmprunt(personne, isExistingClient);
-//        int score = scoringService.calculerScoreGlobal(personne, isExistingClient);
-        int score=0;
         if (decision == Decision.ACCORD_IMMEDIAT) {
             // Accord immédiat: montant demandé ou capacité max si inférieur
             return Math.min(montantDemande, capaciteMax);
@@ -86,18 +182,7 @@ public class DecisionEngine {
         }
     }
     
-    /**
-     * Calculer le taux d'intérêt selon le profil de risque
-     * @param personne Le demandeur
-     * @param typeCredit Type de crédit
-     * @param decision Décision prise
-     * @param isExistingClient true si client existant
-     * @return Taux d'intérêt annuel
-     */
-    public double calculerTauxInteret(Personne personne, TypeCredit typeCredit, Decision decision, boolean isExistingClient) {
-//        int score = scoringService.calculerScoreGlobal(personne, isExistingClient);
-//        int score = scoringService.calculerScoreGlobal(personne, isExistingClient);
-        int score=0;
+    private double tauxInteret(int score, TypeCredit typeCredit, boolean isExistingClient) {
         // Taux de base selon le type de crédit
         double tauxBase = getTauxBase(typeCredit);
         
@@ -122,44 +207,9 @@ public class DecisionEngine {
         return Math.max(tauxBase + primeRisque, 3.0); // Taux minimum 3%
     }
     
-    /**
-     * Valider les critères spéciaux selon le type de crédit
-     * @param personne Le demandeur
-     * @param typeCredit Type de crédit
-     * @param montantDemande Montant demandé
-     * @return true si critères respectés
-     */
-    public boolean validerCriteresSpeciaux(Personne personne, TypeCredit typeCredit, double montantDemande) {
-        switch (typeCredit) {
-            case IMMOBILIER:
-                return validerCriteresImmobilier(personne, montantDemande);
-            case AUTOMOBILE:
-                return validerCriteresAutomobile(personne, montantDemande);
-            case CONSOMMATION:
-                return validerCriteresConsommation(personne, montantDemande);
-            case MICRO_CREDIT:
-                return validerCriteresicroCredit(personne, montantDemande);
-            default:
-                return true;
-        }
-    }
-    
-    /**
-     * Générer un rapport de décision détaillé
-     * @param personne Le demandeur
-     * @param montantDemande Montant demandé
-     * @param typeCredit Type de crédit
-     * @param isExistingClient true si client existant
-     * @return Rapport textuel
-     */
-    public String genererRapportDecision(Personne personne, double montantDemande, TypeCredit typeCredit, boolean isExistingClient) {
-//        int score = scoringService.calculerScoreGlobal(personne, isExistingClient);
-        int score=0;
-        Decision decision = prendreDecision(personne, montantDemande, typeCredit, isExistingClient);
-        double montantOctroye = calculerMontantOctroye(personne, montantDemande, decision, isExistingClient);
-        double tauxInteret = calculerTauxInteret(personne, typeCredit, decision, isExistingClient);
-        double capaciteMax = scoringService.calculerCapaciteEmprunt(personne, isExistingClient);
-        
+    private String genererRapport(Personne personne, boolean isExistingClient, int score, double capaciteMax,
+                                  double montantDemande, Decision decision, double montantOctroye, double tauxInteret,
+                                  double mensualite) {
         StringBuilder rapport = new StringBuilder();
         rapport.append("=== RAPPORT DE DÉCISION CRÉDIT ===\n");
         rapport.append("Client: ").append(personne.getPrenom()).append(" ").append(personne.getNom()).append("\n");
@@ -172,6 +222,9 @@ public class DecisionEngine {
         if (decision != Decision.REFUS_AUTOMATIQUE) {
             rapport.append("Montant proposé: ").append(String.format("%.2f", montantOctroye)).append(" DH\n");
             rapport.append("Taux d'intérêt: ").append(String.format("%.2f", tauxInteret)).append("%\n");
+            if (mensualite > 0) {
+                rapport.append("Mensualité estimée: ").append(String.format("%.2f", mensualite)).append(" DH\n");
+            }
         }
         
         rapport.append("===============================\n");
@@ -195,51 +248,43 @@ public class DecisionEngine {
         }
     }
     
-    private boolean validerCriteresImmobilier(Personne personne, double montantDemande) {
+    private boolean validerCriteresSpeciaux(ProfilScoring profil, TypeCredit typeCredit, double montantDemande) {
+        switch (typeCredit) {
+            case IMMOBILIER:
+                return validerCriteresImmobilier(profil, montantDemande);
+            case AUTOMOBILE:
+                return validerCriteresAutomobile(profil, montantDemande);
+            case CONSOMMATION:
+                return validerCriteresConsommation(profil, montantDemande);
+            case MICRO_CREDIT:
+                return validerCriteresicroCredit(profil, montantDemande);
+            default:
+                return true;
+        }
+    }
+    
+    private boolean validerCriteresImmobilier(ProfilScoring profil, double montantDemande) {
         // Critères crédit immobilier: âge 25-50, revenus >4000, marié
-        int age = calculerAge(personne.getDateNaissance());
-        double revenu = getRevenu(personne);
+        int age = profil.getAgeAnnees();
+        double revenu = profil.getRevenu();
         
         return age >= 25 && age <= 50 && 
                revenu >= 4000 && 
-               "MARIE".equals(personne.getSituationFamiliale()) &&
+               profil.getSituationFamiliale() == ProfilScoring.SITUATION_MARIE &&
                montantDemande <= revenu * 120; // Max 10 ans de revenus
     }
     
-    private boolean validerCriteresAutomobile(Personne personne, double montantDemande) {
-        double revenu = getRevenu(personne);
+    private boolean validerCriteresAutomobile(ProfilScoring profil, double montantDemande) {
+        double revenu = profil.getRevenu();
         return revenu >= 3000 && montantDemande <= revenu * 36; // Max 3 ans de revenus
     }
     
-    private boolean validerCriteresConsommation(Personne personne, double montantDemande) {
-        double revenu = getRevenu(personne);
+    private boolean validerCriteresConsommation(ProfilScoring profil, double montantDemande) {
+        double revenu = profil.getRevenu();
         return revenu >= 2000 && montantDemande <= revenu * 12; // Max 1 an de revenus
     }
     
-    private boolean validerCriteresicroCredit(Personne personne, double montantDemande) {
+    private boolean validerCriteresicroCredit(ProfilScoring profil, double montantDemande) {
         return montantDemande <= 50000; // Plafond micro-crédit
     }
-    
-    private double getRevenu(Personne personne) {
-        if (personne instanceof com.microfinance.scoring.model.Employe) {
-            return ((com.microfinance.scoring.model.Employe) personne).getSalaire();
-        } else if (personne instanceof com.microfinance.scoring.model.Professionnel) {
-            return ((com.microfinance.scoring.model.Professionnel) personne).getRevenu();
-        }
-        return 0;
-    }
-    
-    private int calculerAge(java.util.Date dateNaissance) {
-        if (dateNaissance == null) return 0;
-        
-        java.util.Calendar today = java.util.Calendar.getInstance();
-        java.util.Calendar birthDate = java.util.Calendar.getInstance();
-        birthDate.setTime(dateNaissance);
-        
-        int age = today.get(java.util.Calendar.YEAR) - birthDate.get(java.util.Calendar.YEAR);
-        if (today.get(java.util.Calendar.DAY_OF_YEAR) < birthDate.get(java.util.Calendar.DAY_OF_YEAR)) {
-            age--;
-        }
-        return age;
-    }
-}
\ No newline at end of file
+}
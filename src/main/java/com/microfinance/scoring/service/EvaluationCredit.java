@@ -0,0 +1,59 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.model.enums.ComposantScoring;
+import com.microfinance.scoring.model.enums.Decision;
+import com.microfinance.scoring.model.enums.TypeCredit;
+
+/**
+ * Résultat immuable de l'évaluation d'une demande de crédit
+ * Score, capacité, décision, montant et taux sont calculés une seule fois par DecisionEngine.evaluer
+ */
+public final class EvaluationCredit {
+
+    private final int[] composantes;
+    private final int score;
+    private final boolean clientExistant;
+    private final boolean criteresSpeciauxRespectes;
+    private final TypeCredit typeCredit;
+    private final double montantDemande;
+    private final double capaciteMax;
+    private final Decision decision;
+    private final double montantOctroye;
+    private final double tauxInteret;
+    private final String rapport;
+
+    EvaluationCredit(int[] composantes, int score, boolean clientExistant, boolean criteresSpeciauxRespectes,
+                     TypeCredit typeCredit, double montantDemande, double capaciteMax, Decision decision,
+                     double montantOctroye, double tauxInteret, String rapport) {
+        this.composantes = composantes.clone();
+        this.score = score;
+        this.clientExistant = clientExistant;
+        this.criteresSpeciauxRespectes = criteresSpeciauxRespectes;
+        this.typeCredit = typeCredit;
+        this.montantDemande = montantDemande;
+        this.capaciteMax = capaciteMax;
+        this.decision = decision;
+        this.montantOctroye = montantOctroye;
+        this.tauxInteret = tauxInteret;
+        this.rapport = rapport;
+    }
+
+    /**
+     * Score brut (0-100) d'un composant, avant pondération
+     */
+    public int getScoreComposant(ComposantScoring composant) {
+        return composantes[composant.ordinal()];
+    }
+
+    // Getters
+    public int getScore() { return score; }
+    public boolean isClientExistant() { return clientExistant; }
+    public boolean isCriteresSpeciauxRespectes() { return criteresSpeciauxRespectes; }
+    public TypeCredit getTypeCredit() { return typeCredit; }
+    public double getMontantDemande() { return montantDemande; }
+    public double getCapaciteMax() { return capaciteMax; }
+    public Decision getDecision() { return decision; }
+    public double getMontantOctroye() { return montantOctroye; }
+    public double getTauxInteret() { return tauxInteret; }
+    public String getRapport() { return rapport; }
+}
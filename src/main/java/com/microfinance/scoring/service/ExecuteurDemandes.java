@@ -0,0 +1,149 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.config.ConnectionDB;
+import com.microfinance.scoring.model.DemandeCredit;
+import com.microfinance.scoring.model.enums.TypeCredit;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exécution concurrente des demandes de crédit, un thread virtuel par demande
+ * Les appels JDBC bloquants ne mobilisent plus un thread plateforme; le nombre de demandes
+ * simultanément admises est borné par un sémaphore à la taille max du pool de connexions,
+ * les suivantes attendent leur tour (file d'attente) sans consommer de connexion.
+ */
+public class ExecuteurDemandes implements AutoCloseable {
+
+    private final CreditService creditService;
+    private final ExecutorService executeur;
+    private final Semaphore admission;
+    private final int capacite;
+
+    private final AtomicInteger enAttente = new AtomicInteger();
+    private final AtomicInteger enCours = new AtomicInteger();
+    private final LongAdder soumises = new LongAdder();
+    private final LongAdder terminees = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+
+    public ExecuteurDemandes() {
+        this(new CreditService(), ConnectionDB.getInstance().getTailleMaxPool());
+    }
+
+    public ExecuteurDemandes(CreditService creditService, int capacite) {
+        if (capacite <= 0) {
+            throw new IllegalArgumentException("La capacité doit être positive");
+        }
+        this.creditService = creditService;
+        this.capacite = capacite;
+        this.admission = new Semaphore(capacite, true);
+        this.executeur = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Soumettre une demande de crédit
+     * @param clientId ID du client
+     * @param montantDemande Montant demandé
+     * @param dureeMois Durée en mois
+     * @param typeCredit Type de crédit
+     * @return Future complété par le résultat du traitement
+     */
+    public CompletableFuture<CreditService.ResultatDemandeCredit> soumettre(UUID clientId, double montantDemande,
+                                                                          int dureeMois, TypeCredit typeCredit) {
+        soumises.increment();
+        enAttente.incrementAndGet();
+        try {
+            return CompletableFuture.supplyAsync(() -> traiter(clientId, montantDemande, dureeMois, typeCredit), executeur);
+        } catch (RejectedExecutionException e) {
+            // Exécuteur fermé
+            enAttente.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public CompletableFuture<CreditService.ResultatDemandeCredit> soumettre(DemandeCredit demande) {
+        return soumettre(demande.getClientId(), demande.getMontantDemande(), demande.getDureeMois(), demande.getTypeCredit());
+    }
+
+    private CreditService.ResultatDemandeCredit traiter(UUID clientId, double montantDemande, int dureeMois, TypeCredit typeCredit) {
+        boolean admise = false;
+        try {
+            admission.acquire();
+            admise = true;
+            enAttente.decrementAndGet();
+            enCours.incrementAndGet();
+
+            CreditService.ResultatDemandeCredit resultat = creditService.traiterDemandeCredit(clientId, montantDemande, dureeMois, typeCredit);
+            if (!resultat.isSucces()) {
+                echecs.increment();
+            }
+            return resultat;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            echecs.increment();
+            return new CreditService.ResultatDemandeCredit(false, "Traitement interrompu", null, null);
+        } finally {
+            if (admise) {
+                enCours.decrementAndGet();
+                admission.release();
+            } else {
+                enAttente.decrementAndGet();
+            }
+            terminees.increment();
+        }
+    }
+
+    public StatistiquesExecuteur getStatistiques() {
+        return new StatistiquesExecuteur(capacite, enAttente.get(), enCours.get(),
+                soumises.sum(), terminees.sum(), echecs.sum());
+    }
+
+    /**
+     * Refuser les nouvelles demandes et attendre la fin de celles en cours
+     */
+    @Override
+    public void close() {
+        executeur.shutdown();
+        try {
+            if (!executeur.awaitTermination(30, TimeUnit.SECONDS)) {
+                executeur.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executeur.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class StatistiquesExecuteur {
+        private int capacite;
+        private int enAttente;
+        private int enCours;
+        private long soumises;
+        private long terminees;
+        private long echecs;
+
+        public StatistiquesExecuteur(int capacite, int enAttente, int enCours, long soumises, long terminees, long echecs) {
+            this.capacite = capacite;
+            this.enAttente = enAttente;
+            this.enCours = enCours;
+            this.soumises = soumises;
+            this.terminees = terminees;
+            this.echecs = echecs;
+        }
+
+        // Getters
+        public int getCapacite() { return capacite; }
+        public int getEnAttente() { return enAttente; }
+        public int getEnCours() { return enCours; }
+        public long getSoumises() { return soumises; }
+        public long getTerminees() { return terminees; }
+        public long getEchecs() { return echecs; }
+    }
+}
@@ -0,0 +1,381 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.model.Credit;
+import com.microfinance.scoring.model.enums.Decision;
+import com.microfinance.scoring.model.enums.TypeCredit;
+import com.microfinance.scoring.repository.CreditRepository;
+import com.microfinance.scoring.repository.CreditRepository.PerformanceCredit;
+import com.microfinance.scoring.repository.EcheanceRepository;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Instantané du portefeuille actif dans un fichier binaire en colonnes
+ * Crédits joints aux agrégats de v_performance_remboursements, une colonne primitive de largeur
+ * fixe par champ et un dictionnaire pour les chaînes. Le fichier est projeté en mémoire
+ * (FileChannel.map) et lu sans copie: l'ouverture ne coûte que la vérification du CRC.
+ *
+ * Format (little-endian):
+ *   En-tête de 64 octets: magic, version, lignes, colonnes, date de création (ms),
+ *   taille du corps, CRC32 du corps, réservé
+ *   Corps: les colonnes dans l'ordre de Colonne, chacune alignée sur 8 octets, puis le
+ *   dictionnaire (nombre de chaînes, offsets int[nombre + 1], octets UTF-8)
+ */
+public final class InstantanePortefeuille {
+
+    public static final int MAGIC = 0x53504D46; // "FMPS" en little-endian
+    public static final int VERSION = 1;
+    private static final int TAILLE_EN_TETE = 64;
+    private static final int SANS_VALEUR = -1;
+
+    private enum Nature { LONG, DOUBLE, INT }
+
+    enum Colonne {
+        ID_HAUT(Nature.LONG), ID_BAS(Nature.LONG), CLIENT_HAUT(Nature.LONG), CLIENT_BAS(Nature.LONG),
+        MONTANT_DEMANDE(Nature.DOUBLE), MONTANT_OCTROYE(Nature.DOUBLE), TAUX_INTERET(Nature.DOUBLE),
+        MOYENNE_JOURS_RETARD(Nature.DOUBLE), TOTAL_PAYE(Nature.DOUBLE), TOTAL_DU(Nature.DOUBLE),
+        // Jours depuis l'époque, SANS_VALEUR si inconnue
+        DATE_CREDIT(Nature.INT), DUREE_MOIS(Nature.INT),
+        // Codes du dictionnaire
+        TYPE_CREDIT(Nature.INT), DECISION(Nature.INT), NOM(Nature.INT), PRENOM(Nature.INT),
+        NOMBRE_ECHEANCES(Nature.INT), ECHEANCES_PAYEES(Nature.INT), ECHEANCES_RETARD(Nature.INT);
+
+        final Nature nature;
+        final int largeur;
+
+        Colonne(Nature nature) {
+            this.nature = nature;
+            this.largeur = nature == Nature.INT ? 4 : 8;
+        }
+    }
+
+    private final Path fichier;
+    private final int nombreLignes;
+    private final long dateCreation;
+    private final LongBuffer[] colonnesLong = new LongBuffer[Colonne.values().length];
+    private final DoubleBuffer[] colonnesDouble = new DoubleBuffer[Colonne.values().length];
+    private final IntBuffer[] colonnesInt = new IntBuffer[Colonne.values().length];
+    private final IntBuffer offsetsChaines;
+    private final ByteBuffer octetsChaines;
+
+    private InstantanePortefeuille(Path fichier, MappedByteBuffer contenu, int nombreLignes, long dateCreation) throws IOException {
+        this.fichier = fichier;
+        this.nombreLignes = nombreLignes;
+        this.dateCreation = dateCreation;
+
+        long offset = TAILLE_EN_TETE;
+        for (Colonne colonne : Colonne.values()) {
+            ByteBuffer tranche = tranche(contenu, offset, (long) nombreLignes * colonne.largeur);
+            switch (colonne.nature) {
+                case LONG:
+                    colonnesLong[colonne.ordinal()] = tranche.asLongBuffer();
+                    break;
+                case DOUBLE:
+                    colonnesDouble[colonne.ordinal()] = tranche.asDoubleBuffer();
+                    break;
+                default:
+                    colonnesInt[colonne.ordinal()] = tranche.asIntBuffer();
+            }
+            offset = aligner(offset + (long) nombreLignes * colonne.largeur);
+        }
+
+        int nombreChaines = tranche(contenu, offset, 4).getInt(0);
+        this.offsetsChaines = tranche(contenu, offset + 4, 4L * (nombreChaines + 1)).asIntBuffer();
+        long debutOctets = offset + 4 + 4L * (nombreChaines + 1);
+        this.octetsChaines = tranche(contenu, debutOctets, offsetsChaines.get(nombreChaines));
+    }
+
+    /**
+     * Exporter le portefeuille actif (écriture dans un fichier temporaire puis déplacement atomique)
+     * Les agrégats de v_performance_remboursements ne lisent que la table echeances: l'export est
+     * refusé si des échéanciers sont stockés en mode VIRTUEL.
+     * @param fichier Fichier de destination, remplacé s'il existe
+     * @return Nombre de crédits écrits
+     * @throws IllegalStateException si des échéanciers virtuels existent
+     */
+    public static int exporter(CreditRepository creditRepository, Path fichier) throws IOException {
+        new EcheanceRepository().exigerEcheanciersComplets("InstantanePortefeuille.exporter");
+        Ecrivain ecrivain = new Ecrivain();
+        creditRepository.parcourirPerformances(ecrivain::ajouter);
+
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        ecrivain.ecrire(temporaire);
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return ecrivain.nombreLignes;
+    }
+
+    /**
+     * Ouvrir un instantané en vérifiant son CRC
+     */
+    public static InstantanePortefeuille ouvrir(Path fichier) throws IOException {
+        return ouvrir(fichier, true);
+    }
+
+    /**
+     * @param verifier false pour sauter le calcul du CRC (fichier déjà vérifié par ailleurs)
+     * @throws IOException Fichier tronqué, corrompu ou de version inconnue
+     */
+    public static InstantanePortefeuille ouvrir(Path fichier, boolean verifier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille < TAILLE_EN_TETE) {
+                throw new IOException("Instantané tronqué: " + fichier);
+            }
+            if (taille > Integer.MAX_VALUE) {
+                throw new IOException("Instantané trop volumineux pour une projection unique: " + taille + " octets");
+            }
+            // La projection reste valide après la fermeture du canal
+            MappedByteBuffer contenu = canal.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+            ByteBuffer enTete = contenu.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+            if (enTete.getInt(0) != MAGIC) {
+                throw new IOException("Ce fichier n'est pas un instantané de portefeuille: " + fichier);
+            }
+            int version = enTete.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Version d'instantané non prise en charge: " + version + " (attendue " + VERSION + ")");
+            }
+            int nombreLignes = enTete.getInt(8);
+            int nombreColonnes = enTete.getInt(12);
+            long dateCreation = enTete.getLong(16);
+            long tailleCorps = enTete.getLong(24);
+            long crc = enTete.getLong(32);
+            if (nombreColonnes != Colonne.values().length || tailleCorps != taille - TAILLE_EN_TETE) {
+                throw new IOException("En-tête d'instantané incohérent: " + fichier);
+            }
+            if (verifier) {
+                CRC32 calcul = new CRC32();
+                calcul.update(contenu.duplicate().position(TAILLE_EN_TETE));
+                if (calcul.getValue() != crc) {
+                    throw new IOException("Instantané corrompu (CRC32 invalide): " + fichier);
+                }
+            }
+            return new InstantanePortefeuille(fichier, contenu, nombreLignes, dateCreation);
+        }
+    }
+
+    public UUID getId(int ligne) {
+        return new UUID(colonnesLong[Colonne.ID_HAUT.ordinal()].get(ligne), colonnesLong[Colonne.ID_BAS.ordinal()].get(ligne));
+    }
+
+    public UUID getClientId(int ligne) {
+        return new UUID(colonnesLong[Colonne.CLIENT_HAUT.ordinal()].get(ligne), colonnesLong[Colonne.CLIENT_BAS.ordinal()].get(ligne));
+    }
+
+    public LocalDate getDateCredit(int ligne) {
+        int jour = entier(Colonne.DATE_CREDIT, ligne);
+        return jour == SANS_VALEUR ? null : LocalDate.ofEpochDay(jour);
+    }
+
+    public double getMontantDemande(int ligne) { return reel(Colonne.MONTANT_DEMANDE, ligne); }
+    public double getMontantOctroye(int ligne) { return reel(Colonne.MONTANT_OCTROYE, ligne); }
+    public double getTauxInteret(int ligne) { return reel(Colonne.TAUX_INTERET, ligne); }
+    public int getDureeMois(int ligne) { return entier(Colonne.DUREE_MOIS, ligne); }
+    public TypeCredit getTypeCredit(int ligne) { return TypeCredit.valueOf(chaine(entier(Colonne.TYPE_CREDIT, ligne))); }
+    public Decision getDecision(int ligne) { return Decision.valueOf(chaine(entier(Colonne.DECISION, ligne))); }
+    public String getNom(int ligne) { return chaine(entier(Colonne.NOM, ligne)); }
+    public String getPrenom(int ligne) { return chaine(entier(Colonne.PRENOM, ligne)); }
+    public int getNombreEcheances(int ligne) { return entier(Colonne.NOMBRE_ECHEANCES, ligne); }
+    public int getEcheancesPayees(int ligne) { return entier(Colonne.ECHEANCES_PAYEES, ligne); }
+    public int getEcheancesRetard(int ligne) { return entier(Colonne.ECHEANCES_RETARD, ligne); }
+    public double getMoyenneJoursRetard(int ligne) { return reel(Colonne.MOYENNE_JOURS_RETARD, ligne); }
+    public double getTotalPaye(int ligne) { return reel(Colonne.TOTAL_PAYE, ligne); }
+    public double getTotalDu(int ligne) { return reel(Colonne.TOTAL_DU, ligne); }
+
+    public int getNombreLignes() { return nombreLignes; }
+    public Instant getDateCreation() { return Instant.ofEpochMilli(dateCreation); }
+    public Path getFichier() { return fichier; }
+
+    private double reel(Colonne colonne, int ligne) {
+        return colonnesDouble[colonne.ordinal()].get(ligne);
+    }
+
+    private int entier(Colonne colonne, int ligne) {
+        return colonnesInt[colonne.ordinal()].get(ligne);
+    }
+
+    // Chaîne décodée à la demande depuis le dictionnaire projeté
+    private String chaine(int code) {
+        if (code == SANS_VALEUR) {
+            return null;
+        }
+        int debut = offsetsChaines.get(code);
+        byte[] octets = new byte[offsetsChaines.get(code + 1) - debut];
+        octetsChaines.get(debut, octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer tranche(ByteBuffer contenu, long offset, long longueur) throws IOException {
+        if (offset + longueur > contenu.capacity()) {
+            throw new IOException("Instantané tronqué: section hors du fichier");
+        }
+        return contenu.duplicate().position((int) offset).limit((int) (offset + longueur))
+                .slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long aligner(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    /**
+     * Accumulation des colonnes en mémoire (le nombre de lignes doit être connu avant l'écriture)
+     */
+    private static final class Ecrivain {
+        private final ByteBuffer[] colonnes = new ByteBuffer[Colonne.values().length];
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> chaines = new ArrayList<>();
+        private int nombreLignes;
+
+        Ecrivain() {
+            for (Colonne colonne : Colonne.values()) {
+                colonnes[colonne.ordinal()] = ByteBuffer.allocate(1024 * colonne.largeur).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        void ajouter(PerformanceCredit performance) {
+            Credit credit = performance.getCredit();
+            colonne(Colonne.ID_HAUT).putLong(credit.getId().getMostSignificantBits());
+            colonne(Colonne.ID_BAS).putLong(credit.getId().getLeastSignificantBits());
+            colonne(Colonne.CLIENT_HAUT).putLong(credit.getClientId().getMostSignificantBits());
+            colonne(Colonne.CLIENT_BAS).putLong(credit.getClientId().getLeastSignificantBits());
+            colonne(Colonne.MONTANT_DEMANDE).putDouble(credit.getMontantDemande());
+            colonne(Colonne.MONTANT_OCTROYE).putDouble(credit.getMontantOctroye());
+            colonne(Colonne.TAUX_INTERET).putDouble(credit.getTauxInteret());
+            colonne(Colonne.MOYENNE_JOURS_RETARD).putDouble(performance.getMoyenneJoursRetard());
+            colonne(Colonne.TOTAL_PAYE).putDouble(performance.getTotalPaye());
+            colonne(Colonne.TOTAL_DU).putDouble(performance.getTotalDu());
+            colonne(Colonne.DATE_CREDIT).putInt(credit.getDateCredit() == null ? SANS_VALEUR
+                    : (int) Instant.ofEpochMilli(credit.getDateCredit().getTime()).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay());
+            colonne(Colonne.DUREE_MOIS).putInt(credit.getDureeMois());
+            colonne(Colonne.TYPE_CREDIT).putInt(coder(credit.getTypeCredit().name()));
+            colonne(Colonne.DECISION).putInt(coder(credit.getDecision().name()));
+            colonne(Colonne.NOM).putInt(coder(performance.getNom()));
+            colonne(Colonne.PRENOM).putInt(coder(performance.getPrenom()));
+            colonne(Colonne.NOMBRE_ECHEANCES).putInt(performance.getNombreEcheances());
+            colonne(Colonne.ECHEANCES_PAYEES).putInt(performance.getEcheancesPayees());
+            colonne(Colonne.ECHEANCES_RETARD).putInt(performance.getEcheancesRetard());
+            nombreLignes++;
+        }
+
+        // Tampon de la colonne, doublé s'il ne peut plus recevoir une valeur
+        private ByteBuffer colonne(Colonne colonne) {
+            ByteBuffer tampon = colonnes[colonne.ordinal()];
+            if (tampon.remaining() < colonne.largeur) {
+                ByteBuffer agrandi = ByteBuffer.allocate(tampon.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                tampon.flip();
+                agrandi.put(tampon);
+                colonnes[colonne.ordinal()] = tampon = agrandi;
+            }
+            return tampon;
+        }
+
+        private int coder(String chaine) {
+            if (chaine == null) {
+                return SANS_VALEUR;
+            }
+            Integer code = codes.get(chaine);
+            if (code == null) {
+                code = chaines.size();
+                chaines.add(chaine);
+                codes.put(chaine, code);
+            }
+            return code;
+        }
+
+        void ecrire(Path fichier) throws IOException {
+            CRC32 crc = new CRC32();
+            long tailleCorps = 0;
+
+            try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                canal.position(TAILLE_EN_TETE);
+                ByteBuffer bourrage = ByteBuffer.allocate(8);
+
+                for (ByteBuffer colonne : colonnes) {
+                    colonne.flip();
+                    tailleCorps += ecrire(canal, colonne, crc);
+                    int reste = (int) (aligner(tailleCorps) - tailleCorps);
+                    if (reste > 0) {
+                        bourrage.clear().limit(reste);
+                        tailleCorps += ecrire(canal, bourrage, crc);
+                    }
+                }
+                tailleCorps += ecrire(canal, dictionnaire(), crc);
+
+                ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE).order(ByteOrder.LITTLE_ENDIAN);
+                enTete.putInt(MAGIC)
+                      .putInt(VERSION)
+                      .putInt(nombreLignes)
+                      .putInt(colonnes.length)
+                      .putLong(System.currentTimeMillis())
+                      .putLong(tailleCorps)
+                      .putLong(crc.getValue());
+                enTete.clear();
+                while (enTete.hasRemaining()) {
+                    canal.write(enTete, enTete.position());
+                }
+                canal.force(true);
+            }
+        }
+
+        private ByteBuffer dictionnaire() {
+            byte[][] octets = new byte[chaines.size()][];
+            int total = 0;
+            for (int i = 0; i < octets.length; i++) {
+                octets[i] = chaines.get(i).getBytes(StandardCharsets.UTF_8);
+                total += octets[i].length;
+            }
+            ByteBuffer dictionnaire = ByteBuffer.allocate(4 + 4 * (octets.length + 1) + total).order(ByteOrder.LITTLE_ENDIAN);
+            dictionnaire.putInt(octets.length);
+            int offset = 0;
+            for (byte[] chaine : octets) {
+                dictionnaire.putInt(offset);
+                offset += chaine.length;
+            }
+            dictionnaire.putInt(offset);
+            for (byte[] chaine : octets) {
+                dictionnaire.put(chaine);
+            }
+            return dictionnaire.flip();
+        }
+
+        private static long ecrire(FileChannel canal, ByteBuffer tampon, CRC32 crc) throws IOException {
+            crc.update(tampon.duplicate());
+            long ecrits = tampon.remaining();
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+            return ecrits;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path fichier = Paths.get(args.length > 0 ? args[0]
+                : System.getProperty("microfinance.snapshot.fichier", "portefeuille.snapshot"));
+        long debut = System.nanoTime();
+        int lignes = exporter(new CreditRepository(), fichier);
+        System.out.printf("Instantané écrit: %d crédits dans %s en %d ms%n",
+                lignes, fichier, (System.nanoTime() - debut) / 1_000_000);
+    }
+}
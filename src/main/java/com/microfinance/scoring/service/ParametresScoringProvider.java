@@ -0,0 +1,78 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.model.ParametresScoring;
+import com.microfinance.scoring.repository.ParametresScoringRepository;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fournisseur des paramètres de scoring (Singleton)
+ * Le scoring lit un instantané immuable sans verrou; une tâche de fond surveille
+ * date_modification et remplace l'instantané d'un bloc (copy-on-write) quand la table change.
+ */
+public class ParametresScoringProvider {
+
+    private static ParametresScoringProvider instance = null;
+
+    private final ParametresScoringRepository repository;
+    private final ScheduledExecutorService rafraichissement;
+
+    private volatile ParametresScoring courant = ParametresScoring.parDefaut();
+    private long[] derniereSignature = null;
+
+    private ParametresScoringProvider() {
+        this.repository = new ParametresScoringRepository();
+        recharger();
+
+        long periodeMs = Long.getLong("microfinance.scoring.refreshMs", 30_000L);
+        this.rafraichissement = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "parametres-scoring-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        rafraichissement.scheduleWithFixedDelay(this::rafraichirSiModifie, periodeMs, periodeMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized ParametresScoringProvider getInstance() {
+        if (instance == null) {
+            instance = new ParametresScoringProvider();
+        }
+        return instance;
+    }
+
+    /**
+     * Instantané courant des paramètres; ne touche jamais la base
+     */
+    public ParametresScoring getParametres() {
+        return courant;
+    }
+
+    /**
+     * Forcer la relecture de la table (ex: après modification par un analyste)
+     */
+    public synchronized void recharger() {
+        Optional<long[]> signature = repository.findSignature();
+        Optional<ParametresScoring> parametres = repository.chargerActifs();
+        if (parametres.isPresent()) {
+            courant = parametres.get();
+        }
+        derniereSignature = signature.orElse(null);
+    }
+
+    private void rafraichirSiModifie() {
+        try {
+            Optional<long[]> signature = repository.findSignature();
+            synchronized (this) {
+                if (signature.isPresent() && !Arrays.equals(signature.get(), derniereSignature)) {
+                    recharger();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Garder l'instantané courant; nouvelle tentative au prochain cycle
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.model.Employe;
+import com.microfinance.scoring.model.Personne;
+import com.microfinance.scoring.model.Professionnel;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * Vecteur de caractéristiques primitives d'un client, extrait une seule fois avant le scoring
+ * Les composants du score lisent ces champs sans instanceof, chaîne ni allocation.
+ */
+public final class ProfilScoring {
+
+    // Drapeaux (bitmask)
+    public static final int EMPLOYE = 1;
+    public static final int PROFESSIONNEL = 1 << 1;
+    public static final int INVESTISSEMENT = 1 << 2;
+    public static final int PLACEMENT = 1 << 3;
+    public static final int IMMATRICULATION = 1 << 4;
+    public static final int CONTRAT_CDI = 1 << 5;
+    public static final int DATE_NAISSANCE_CONNUE = 1 << 6;
+    public static final int DATE_RELATION_CONNUE = 1 << 7;
+    public static final int INCIDENTS_RECENTS = 1 << 8;
+
+    // Situation familiale encodée
+    public static final byte SITUATION_INCONNUE = 0;
+    public static final byte SITUATION_MARIE = 1;
+    public static final byte SITUATION_CELIBATAIRE = 2;
+    public static final byte SITUATION_DIVORCE_VEUF = 3;
+
+    final double revenu;
+    final int ageAnnees;
+    final long ageJours;
+    final int anneesRelation;
+    final long joursRelation;
+    final int nombreEnfants;
+    final int ancienneteMois;
+    final int drapeaux;
+    final byte situationFamiliale;
+
+    private ProfilScoring(double revenu, int ageAnnees, long ageJours, int anneesRelation, long joursRelation,
+                          int nombreEnfants, int ancienneteMois, int drapeaux, byte situationFamiliale) {
+        this.revenu = revenu;
+        this.ageAnnees = ageAnnees;
+        this.ageJours = ageJours;
+        this.anneesRelation = anneesRelation;
+        this.joursRelation = joursRelation;
+        this.nombreEnfants = nombreEnfants;
+        this.ancienneteMois = ancienneteMois;
+        this.drapeaux = drapeaux;
+        this.situationFamiliale = situationFamiliale;
+    }
+
+    /**
+     * Extraire le profil d'un client
+     * @param personne Le client
+     * @param incidentsRecents true si le client a des incidents récents
+     * @param aujourdhui Date de référence pour l'âge et l'ancienneté de relation
+     * @return Profil primitif
+     */
+    public static ProfilScoring extraire(Personne personne, boolean incidentsRecents, LocalDate aujourdhui) {
+        int drapeaux = 0;
+        double revenu = 0;
+        int anciennete = 0;
+
+        if (personne instanceof Employe) {
+            Employe employe = (Employe) personne;
+            drapeaux |= EMPLOYE;
+            revenu = employe.getSalaire();
+            anciennete = employe.getAnciennete();
+
+            String typeContrat = employe.getTypeContrat();
+            if (typeContrat != null && typeContrat.startsWith("CDI")) drapeaux |= CONTRAT_CDI;
+
+        } else if (personne instanceof Professionnel) {
+            Professionnel professionnel = (Professionnel) personne;
+            drapeaux |= PROFESSIONNEL;
+            revenu = professionnel.getRevenu();
+
+            if (nonVide(professionnel.getImmatriculationFiscale())) drapeaux |= IMMATRICULATION;
+        }
+
+        if (nonVide(personne.getInvestissement())) drapeaux |= INVESTISSEMENT;
+        if (nonVide(personne.getPlacement())) drapeaux |= PLACEMENT;
+        if (incidentsRecents) drapeaux |= INCIDENTS_RECENTS;
+
+        int ageAnnees = 0;
+        long ageJours = 0;
+        LocalDate naissance = versLocalDate(personne.getDateNaissance());
+        if (naissance != null) {
+            drapeaux |= DATE_NAISSANCE_CONNUE;
+            ageAnnees = Period.between(naissance, aujourdhui).getYears();
+            ageJours = ChronoUnit.DAYS.between(naissance, aujourdhui);
+        }
+
+        int anneesRelation = 0;
+        long joursRelation = 0;
+        LocalDate debutRelation = versLocalDate(personne.getCreatedAt());
+        if (debutRelation != null) {
+            drapeaux |= DATE_RELATION_CONNUE;
+            anneesRelation = Period.between(debutRelation, aujourdhui).getYears();
+            joursRelation = ChronoUnit.DAYS.between(debutRelation, aujourdhui);
+        }
+
+        return new ProfilScoring(revenu, ageAnnees, ageJours, anneesRelation, joursRelation,
+                personne.getNombreEnfants(), anciennete, drapeaux, encoderSituation(personne.getSituationFamiliale()));
+    }
+
+    public boolean a(int drapeau) {
+        return (drapeaux & drapeau) != 0;
+    }
+
+    // Getters
+    public double getRevenu() { return revenu; }
+    public int getAgeAnnees() { return ageAnnees; }
+    public long getAgeJours() { return ageJours; }
+    public int getAnneesRelation() { return anneesRelation; }
+    public long getJoursRelation() { return joursRelation; }
+    public int getNombreEnfants() { return nombreEnfants; }
+    public int getAncienneteMois() { return ancienneteMois; }
+    public byte getSituationFamiliale() { return situationFamiliale; }
+
+    private static byte encoderSituation(String situation) {
+        if (situation == null) {
+            return SITUATION_INCONNUE;
+        }
+        switch (situation) {
+            case "MARIE":
+                return SITUATION_MARIE;
+            case "CELIBATAIRE":
+                return SITUATION_CELIBATAIRE;
+            case "DIVORCE":
+            case "VEUF":
+                return SITUATION_DIVORCE_VEUF;
+            default:
+                return SITUATION_INCONNUE;
+        }
+    }
+
+    private static LocalDate versLocalDate(Date date) {
+        if (date == null) {
+            return null;
+        }
+        // java.sql.Date ne supporte pas toInstant(): passer par l'epoch
+        return LocalDate.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
+    }
+
+    private static boolean nonVide(String valeur) {
+        return valeur != null && !valeur.isEmpty();
+    }
+}
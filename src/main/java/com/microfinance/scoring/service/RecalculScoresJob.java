@@ -0,0 +1,272 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.config.UnitOfWork;
+import com.microfinance.scoring.model.Personne;
+import com.microfinance.scoring.repository.CreditRepository;
+import com.microfinance.scoring.repository.HistoriqueScoreRepository;
+import com.microfinance.scoring.repository.IncidentRepository;
+import com.microfinance.scoring.repository.PersonneRepository;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Recalcul nocturne du score de tous les clients
+ * Les clients sont lus par partitions d'identifiants croissants; pour chaque partition, les incidents
+ * récents et le statut "client existant" sont chargés en deux requêtes, les scores calculés en
+ * parallèle sur un ForkJoinPool, puis seuls les scores modifiés sont écrits (UPDATE en lot +
+ * historique_scores) dans une transaction. L'UPDATE est conditionné au score lu: un client modifié
+ * entre-temps par un autre écrivain est ignoré (ni écrasé, ni historisé) et sera revu au prochain
+ * recalcul. Un fichier de reprise mémorise la dernière partition validée.
+ */
+public class RecalculScoresJob {
+
+    private static final String MOTIF = "Recalcul périodique";
+
+    private final ScoringService scoringService;
+    private final PersonneRepository personneRepository;
+    private final CreditRepository creditRepository;
+    private final IncidentRepository incidentRepository;
+    private final HistoriqueScoreRepository historiqueScoreRepository;
+
+    private final int taillePartition;
+    private final int parallelisme;
+    private final Path fichierReprise;
+
+    public RecalculScoresJob() {
+        this(Integer.getInteger("microfinance.rescoring.partitionSize", 1000),
+             Integer.getInteger("microfinance.rescoring.parallelism", Runtime.getRuntime().availableProcessors()),
+             Paths.get(System.getProperty("microfinance.rescoring.checkpoint", "recalcul-scores.checkpoint")));
+    }
+
+    public RecalculScoresJob(int taillePartition, int parallelisme, Path fichierReprise) {
+        if (taillePartition <= 0 || parallelisme <= 0) {
+            throw new IllegalArgumentException("Taille de partition et parallélisme doivent être positifs");
+        }
+        this.scoringService = new ScoringService();
+        this.personneRepository = new PersonneRepository();
+        this.creditRepository = new CreditRepository();
+        this.incidentRepository = new IncidentRepository();
+        this.historiqueScoreRepository = new HistoriqueScoreRepository();
+        this.taillePartition = taillePartition;
+        this.parallelisme = parallelisme;
+        this.fichierReprise = fichierReprise;
+    }
+
+    /**
+     * Lancer (ou reprendre) le recalcul
+     * @return Rapport d'exécution
+     * @throws SQLException si l'écriture d'une partition échoue; le point de reprise reste sur la précédente
+     * (une lecture en échec lève une RuntimeException, avec le même effet sur le point de reprise)
+     */
+    public RapportRecalcul executer() throws SQLException {
+        Properties reprise = lireReprise();
+        UUID dernierId = reprise.containsKey("dernierId") ? UUID.fromString(reprise.getProperty("dernierId")) : null;
+        long traites = Long.parseLong(reprise.getProperty("traites", "0"));
+        long modifies = Long.parseLong(reprise.getProperty("modifies", "0"));
+        boolean repris = dernierId != null;
+
+        long debut = System.nanoTime();
+        long traitesSession = 0;
+        long ignores = 0;
+        LocalDate aujourdhui = LocalDate.now();
+        ForkJoinPool pool = new ForkJoinPool(parallelisme);
+
+        try {
+            while (true) {
+                List<Personne> partition = personneRepository.findPartition(dernierId, taillePartition);
+                if (partition.isEmpty()) {
+                    break;
+                }
+
+                int n = partition.size();
+                List<UUID> ids = new ArrayList<>(n);
+                for (Personne personne : partition) {
+                    ids.add(personne.getId());
+                }
+
+                Map<UUID, Integer> incidents = incidentRepository.countRecentByClientIds(ids);
+                Set<UUID> existants = creditRepository.findClientIdsAvecCredits(ids);
+
+                int[] nouveaux = calculerScores(pool, partition, incidents, existants, aujourdhui);
+
+                // Ne garder que les scores modifiés
+                UUID[] idsModifies = new UUID[n];
+                int[] anciens = new int[n];
+                int[] scores = new int[n];
+                int nombre = 0;
+                for (int i = 0; i < n; i++) {
+                    Personne personne = partition.get(i);
+                    if (personne.getScore() != nouveaux[i]) {
+                        idsModifies[nombre] = personne.getId();
+                        anciens[nombre] = personne.getScore();
+                        scores[nombre] = nouveaux[i];
+                        nombre++;
+                    }
+                }
+
+                int ecrits = 0;
+                if (nombre > 0) {
+                    final int nombreModifies = nombre;
+                    ecrits = UnitOfWork.executer(() -> {
+                        boolean[] appliques = personneRepository.updateScores(idsModifies, anciens, scores, nombreModifies);
+                        if (appliques == null) {
+                            throw new SQLException("Écriture des scores de la partition après " + ids.get(0) + " impossible");
+                        }
+                        // Historiser uniquement les lignes effectivement mises à jour
+                        int appliquees = compacter(appliques, idsModifies, anciens, scores, nombreModifies);
+                        if (!historiqueScoreRepository.saveAll(idsModifies, anciens, scores, appliquees, MOTIF)) {
+                            throw new SQLException("Historisation des scores de la partition après " + ids.get(0) + " impossible");
+                        }
+                        return appliquees;
+                    });
+                }
+                ignores += nombre - ecrits;
+
+                dernierId = ids.get(n - 1);
+                traites += n;
+                traitesSession += n;
+                modifies += ecrits;
+                ecrireReprise(dernierId, traites, modifies);
+
+                double secondes = (System.nanoTime() - debut) / 1e9;
+                System.out.printf("Recalcul des scores: %d clients traités, %d modifiés, %d ignorés (modifiés entre-temps) (%.0f clients/s)%n",
+                        traites, modifies, ignores, secondes > 0 ? traitesSession / secondes : 0);
+
+                if (n < taillePartition) {
+                    break;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        supprimerReprise();
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        return new RapportRecalcul(traites, modifies, dureeMs, traitesSession, repris);
+    }
+
+    // Ramener en tête des tableaux les lignes appliquées, dans l'ordre; renvoie leur nombre
+    private static int compacter(boolean[] appliques, UUID[] ids, int[] anciens, int[] scores, int nombre) {
+        int j = 0;
+        for (int i = 0; i < nombre; i++) {
+            if (appliques[i]) {
+                ids[j] = ids[i];
+                anciens[j] = anciens[i];
+                scores[j] = scores[i];
+                j++;
+            }
+        }
+        return j;
+    }
+
+    private int[] calculerScores(ForkJoinPool pool, List<Personne> partition, Map<UUID, Integer> incidents,
+                                 Set<UUID> existants, LocalDate aujourdhui) throws SQLException {
+        int[] scores = new int[partition.size()];
+        try {
+            pool.submit(() -> IntStream.range(0, scores.length).parallel().forEach(i -> {
+                Personne personne = partition.get(i);
+                UUID id = personne.getId();
+                ProfilScoring profil = ProfilScoring.extraire(personne, incidents.getOrDefault(id, 0) > 0, aujourdhui);
+                scores[i] = scoringService.calculerScoreGlobal(profil, existants.contains(id));
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Recalcul des scores interrompu", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Échec du calcul des scores", e.getCause());
+        }
+        return scores;
+    }
+
+    // Gestion du fichier de reprise
+    private Properties lireReprise() {
+        Properties reprise = new Properties();
+        if (Files.exists(fichierReprise)) {
+            try (InputStream in = Files.newInputStream(fichierReprise)) {
+                reprise.load(in);
+            } catch (IOException e) {
+                e.printStackTrace();
+                reprise.clear();
+            }
+        }
+        return reprise;
+    }
+
+    private void ecrireReprise(UUID dernierId, long traites, long modifies) {
+        Properties reprise = new Properties();
+        reprise.setProperty("dernierId", dernierId.toString());
+        reprise.setProperty("traites", Long.toString(traites));
+        reprise.setProperty("modifies", Long.toString(modifies));
+
+        // Écriture dans un fichier temporaire puis renommage atomique: jamais de point de reprise tronqué
+        Path temporaire = fichierReprise.resolveSibling(fichierReprise.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporaire)) {
+                reprise.store(out, "Recalcul des scores - dernière partition validée");
+            }
+            Files.move(temporaire, fichierReprise, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void supprimerReprise() {
+        try {
+            Files.deleteIfExists(fichierReprise);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        RapportRecalcul rapport = new RecalculScoresJob().executer();
+        System.out.printf("Recalcul terminé%s: %d clients, %d scores modifiés en %d ms (%.0f clients/s)%n",
+                rapport.isRepris() ? " (reprise)" : "", rapport.getClientsTraites(), rapport.getScoresModifies(),
+                rapport.getDureeMs(), rapport.getDebit());
+    }
+
+    public static class RapportRecalcul {
+        private long clientsTraites;
+        private long scoresModifies;
+        private long dureeMs;
+        private long traitesSession;
+        private boolean repris;
+
+        public RapportRecalcul(long clientsTraites, long scoresModifies, long dureeMs, long traitesSession, boolean repris) {
+            this.clientsTraites = clientsTraites;
+            this.scoresModifies = scoresModifies;
+            this.dureeMs = dureeMs;
+            this.traitesSession = traitesSession;
+            this.repris = repris;
+        }
+
+        /**
+         * Clients traités par seconde pendant cette exécution
+         */
+        public double getDebit() {
+            return dureeMs > 0 ? traitesSession * 1000.0 / dureeMs : 0;
+        }
+
+        // Getters
+        public long getClientsTraites() { return clientsTraites; }
+        public long getScoresModifies() { return scoresModifies; }
+        public long getDureeMs() { return dureeMs; }
+        public boolean isRepris() { return repris; }
+    }
+}
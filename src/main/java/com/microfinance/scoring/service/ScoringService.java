@@ -1,53 +1,92 @@
 package com.microfinance.scoring.service;
 
 import com.microfinance.scoring.model.Personne;
-import com.microfinance.scoring.model.Employe;
-import com.microfinance.scoring.model.Professionnel;
-import com.microfinance.scoring.model.Incident;
+import com.microfinance.scoring.model.ParametresScoring;
+import com.microfinance.scoring.model.enums.ComposantScoring;
 import com.microfinance.scoring.repository.IncidentRepository;
 import com.microfinance.scoring.repository.CreditRepository;
-import java.util.Date;
-import java.util.List;
-import java.util.Calendar;
+import java.time.LocalDate;
 
 
 public class ScoringService {
     
     private IncidentRepository incidentRepository;
     private CreditRepository creditRepository;
+    private ParametresScoringProvider parametresProvider;
     
     public ScoringService() {
         this.incidentRepository = new IncidentRepository();
         this.creditRepository = new CreditRepository();
+        this.parametresProvider = ParametresScoringProvider.getInstance();
     }
 
+    /**
+     * Extraire une fois le profil primitif d'un client (revenu, âge, relation, drapeaux)
+     * @param personne Le client
+     * @return Profil utilisé par tous les composants du score
+     */
+    public ProfilScoring extraireProfil(Personne personne) {
+        return ProfilScoring.extraire(personne, hasRecentIncidents(personne), LocalDate.now());
+    }
 
+    /**
+     * Calculer le score global pondéré (0-100) selon les poids actifs de parametres_scoring
+     * @param personne Le client
+     * @param isExistingClient true si client existant
+     * @return Score global
+     */
+    public int calculerScoreGlobal(Personne personne, boolean isExistingClient) {
+        return calculerScoreGlobal(extraireProfil(personne), isExistingClient);
+    }
 
+    /**
+     * Calculer le score global à partir d'un profil déjà extrait (aucune allocation)
+     * @param profil Profil du client
+     * @param isExistingClient true si client existant
+     * @return Score global
+     */
+    public int calculerScoreGlobal(ProfilScoring profil, boolean isExistingClient) {
+        return calculerScoreGlobal(calculerComposantes(profil, isExistingClient));
+    }
 
+    /**
+     * Calculer le détail du score par composant (indexé par ordinal de ComposantScoring)
+     * @param profil Profil du client
+     * @param isExistingClient true si client existant
+     * @return Score brut (0-100) de chaque composant
+     */
+    public int[] calculerComposantes(ProfilScoring profil, boolean isExistingClient) {
+        int[] composantes = new int[ComposantScoring.values().length];
+        composantes[ComposantScoring.STABILITE_PROFESSIONNELLE.ordinal()] = calculerStabiliteProfessionnelle(profil);
+        composantes[ComposantScoring.CAPACITE_FINANCIERE.ordinal()] = calculerCapaciteFinanciere(profil);
+        composantes[ComposantScoring.HISTORIQUE_CREDIT.ordinal()] = calculerHistoriquePaiement(profil);
+        composantes[ComposantScoring.RELATION_CLIENT.ordinal()] = calculerRelationClient(profil, isExistingClient);
+        composantes[ComposantScoring.CRITERES_COMPLEMENTAIRES.ordinal()] = calculerCriteresComplementaires(profil);
+        return composantes;
+    }
 
-    private int calculerAge(Date dateNaissance) {
-        Calendar today = Calendar.getInstance();
-        Calendar birthDate = Calendar.getInstance();
-        birthDate.setTime(dateNaissance);
+    /**
+     * Agréger un détail de score selon les poids actifs de parametres_scoring
+     * @param composantes Scores bruts par composant
+     * @return Score global
+     */
+    public int calculerScoreGlobal(int[] composantes) {
+        ParametresScoring parametres = parametresProvider.getParametres();
+        if (parametres.getPoidsTotal() <= 0) {
+            return 0;
+        }
 
-        int age = today.get(Calendar.YEAR) - birthDate.get(Calendar.YEAR);
-        if (today.get(Calendar.DAY_OF_YEAR) < birthDate.get(Calendar.DAY_OF_YEAR)) {
-            age--;
+        double somme = 0;
+        for (ComposantScoring composant : ComposantScoring.values()) {
+            somme += ponderer(parametres, composant, composantes[composant.ordinal()]);
         }
-        return age;
-    }
 
-    private int calculerAnnees(Date dateDebut, Date dateFin) {
-        Calendar cal1 = Calendar.getInstance();
-        Calendar cal2 = Calendar.getInstance();
-        cal1.setTime(dateDebut);
-        cal2.setTime(dateFin);
+        return (int) Math.round(somme / parametres.getPoidsTotal());
+    }
 
-        int years = cal2.get(Calendar.YEAR) - cal1.get(Calendar.YEAR);
-        if (cal2.get(Calendar.DAY_OF_YEAR) < cal1.get(Calendar.DAY_OF_YEAR)) {
-            years--;
-        }
-        return years;
+    private double ponderer(ParametresScoring parametres, ComposantScoring composant, int scoreComposant) {
+        int borne = Math.max(parametres.getSeuilMin(composant), Math.min(parametres.getSeuilMax(composant), scoreComposant));
+        return parametres.getPoids(composant) * borne;
     }
 
     public boolean isEligible(int score, boolean isExistingClient) {
@@ -60,24 +99,36 @@ public class ScoringService {
 
 
 
-    private int calculerHistoriquePaiement(Personne personne) {
-        if (hasRecentIncidents(personne)) {
+    /**
+     * Stabilité professionnelle: paliers de sp_calculer_score_client (database_creation_script.sql),
+     * notés sur 25 par la procédure et ramenés ici sur 100 comme les autres composants
+     */
+    static int calculerStabiliteProfessionnelle(ProfilScoring profil) {
+        int anciennete = profil.ancienneteMois;
+        if (profil.a(ProfilScoring.EMPLOYE)) {
+            boolean cdi = profil.a(ProfilScoring.CONTRAT_CDI);
+            if (anciennete >= 24 && cdi) return 100;
+            if (anciennete >= 12 && cdi) return 80;
+            if (anciennete >= 6) return 60;
+            return 40;
+        }
+        // Comme la procédure, tout client non employé passe par la branche professionnelle
+        if (profil.a(ProfilScoring.IMMATRICULATION) && profil.revenu >= 5000) return 80;
+        if (profil.revenu >= 3000) return 60;
+        return 40;
+    }
+
+    static int calculerHistoriquePaiement(ProfilScoring profil) {
+        if (profil.a(ProfilScoring.INCIDENTS_RECENTS)) {
             return 30;
         }
         return 80;
     }
 
 
-    private int calculerCapaciteFinanciere(Personne personne) {
+    static int calculerCapaciteFinanciere(ProfilScoring profil) {
         int score = 0;
-        double revenu = 0;
-
-        if (personne instanceof Employe) {
-            revenu = ((Employe) personne).getSalaire();
-
-        } else if (personne instanceof Professionnel) {
-            revenu = ((Professionnel) personne).getRevenu();
-        }
+        double revenu = profil.revenu;
 
         if (revenu >= 10000) score += 70;
         else if (revenu >= 7000) score += 60;
@@ -87,30 +138,26 @@ public class ScoringService {
         else if (revenu >= 2000) score += 20;
         else score += 10;
 
-        String investissement = personne.getInvestissement();
-        String placement = personne.getPlacement();
-
-        if (investissement != null && !investissement.isEmpty()) score += 15;
-        if (placement != null && !placement.isEmpty()) score += 15;
+        if (profil.a(ProfilScoring.INVESTISSEMENT)) score += 15;
+        if (profil.a(ProfilScoring.PLACEMENT)) score += 15;
 
         return Math.min(100, score);
     }
 
 
 
-    private int calculerRelationClient(Personne personne, boolean isExistingClient) {
+    static int calculerRelationClient(ProfilScoring profil, boolean isExistingClient) {
         int score = 0;
         
         if (isExistingClient) {
-            Date createdAt = personne.getCreatedAt();
-            if (createdAt != null) {
-                int anneesRelation = calculerAnnees(createdAt, new Date());
+            if (profil.a(ProfilScoring.DATE_RELATION_CONNUE)) {
+                int anneesRelation = profil.anneesRelation;
                 if (anneesRelation >= 3) score += 60;
                 else if (anneesRelation >= 1) score += 40;
                 else score += 20;
             }
             
-            if (!hasRecentIncidents(personne)) {
+            if (!profil.a(ProfilScoring.INCIDENTS_RECENTS)) {
                 score += 40;
             }
         } else {
@@ -121,35 +168,32 @@ public class ScoringService {
     }
     
 
-    private int calculerCriteresComplementaires(Personne personne) {
+    static int calculerCriteresComplementaires(ProfilScoring profil) {
         int score = 0;
         
-        Date dateNaissance = personne.getDateNaissance();
-        if (dateNaissance != null) {
-            int age = calculerAge(dateNaissance);
+        if (profil.a(ProfilScoring.DATE_NAISSANCE_CONNUE)) {
+            int age = profil.ageAnnees;
             if (age >= 25 && age <= 50) score += 40;
             else if (age >= 18 && age < 25) score += 30;
             else if (age > 50 && age <= 60) score += 25;
             else score += 10;
         }
         
-        String situationFamiliale = personne.getSituationFamiliale();
-        if (situationFamiliale != null) {
-            switch (situationFamiliale) {
-                case "MARIE":
-                    score += 30;
-                    break;
-                case "CELIBATAIRE":
-                    score += 20;
-                    break;
-                case "DIVORCE":
-                case "VEUF":
-                    score += 15;
-                    break;
-            }
+        switch (profil.situationFamiliale) {
+            case ProfilScoring.SITUATION_MARIE:
+                score += 30;
+                break;
+            case ProfilScoring.SITUATION_CELIBATAIRE:
+                score += 20;
+                break;
+            case ProfilScoring.SITUATION_DIVORCE_VEUF:
+                score += 15;
+                break;
+            default:
+                break;
         }
         
-        int nombreEnfants = personne.getNombreEnfants();
+        int nombreEnfants = profil.nombreEnfants;
         if (nombreEnfants == 0) score += 30;
         else if (nombreEnfants <= 2) score += 25;
         else if (nombreEnfants <= 4) score += 15;
@@ -159,40 +203,42 @@ public class ScoringService {
     }
     
 
-
-    
-
     public double calculerCapaciteEmprunt(Personne personne, boolean isExistingClient) {
-        double revenu = 0;
-        
-        if (personne instanceof Employe) {
-            revenu = ((Employe) personne).getSalaire();
-        } else if (personne instanceof Professionnel) {
-            revenu = ((Professionnel) personne).getRevenu();
-        }
-        
-        //int score = calculerScoreGlobal(personne, isExistingClient);
+        return calculerCapaciteEmprunt(extraireProfil(personne), isExistingClient);
+    }
 
-        int score=0;
+    public double calculerCapaciteEmprunt(ProfilScoring profil, boolean isExistingClient) {
+        if (!isExistingClient) {
+            return calculerCapaciteEmprunt(profil.revenu, 0, false);
+        }
+        return calculerCapaciteEmprunt(profil.revenu, calculerScoreGlobal(profil, true), true);
+    }
 
+    /**
+     * Capacité d'emprunt à partir d'un score déjà calculé
+     * @param revenu Revenu mensuel
+     * @param score Score global (ignoré pour un nouveau client)
+     * @param isExistingClient true si client existant
+     * @return Montant maximal empruntable
+     */
+    public double calculerCapaciteEmprunt(double revenu, int score, boolean isExistingClient) {
         if (!isExistingClient) {
             return revenu * 4;
-        } else {
-            if (score > 80) {
-                return revenu * 10;
-            } else if (score >= 60) {
-                return revenu * 7;
-            }
+        }
+
+        if (score > 80) {
+            return revenu * 10;
+        } else if (score >= 60) {
+            return revenu * 7;
         }
         
         return 0;
     }
 
 
+    // Même source que RecalculScoresJob (IncidentRepository, 6 derniers mois): score en ligne et nocturne concordent
     private boolean hasRecentIncidents(Personne personne) {
-
-
-        return false;
+        return personne.getId() != null && incidentRepository.hasRecentByClientId(personne.getId());
     }
 
-}
\ No newline at end of file
+}
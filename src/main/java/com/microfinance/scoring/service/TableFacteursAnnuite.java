@@ -0,0 +1,85 @@
+package com.microfinance.scoring.service;
+
+/**
+ * Table précalculée des facteurs (1 + r)^m pour la grille des taux produits
+ * Taux de 0 % à 20 % par pas de 25 points de base, durées de 0 à 360 mois: les taux de base
+ * de DecisionEngine et leurs primes de risque tombent tous sur la grille. Hors grille, le
+ * calcul direct est utilisé. Table en lecture seule après initialisation: sûre entre threads.
+ */
+public final class TableFacteursAnnuite {
+
+    public static final int PAS_BPS = 25;
+    public static final int TAUX_MAX_BPS = 2000;
+    public static final int DUREE_MAX_MOIS = 360;
+
+    // PUISSANCES[i][m] = (1 + r_i)^m avec r_i = i * PAS_BPS / 10000 / 12
+    private static final double[][] PUISSANCES = new double[TAUX_MAX_BPS / PAS_BPS + 1][DUREE_MAX_MOIS + 1];
+
+    static {
+        for (int i = 0; i < PUISSANCES.length; i++) {
+            double base = 1 + tauxMensuel(i * PAS_BPS / 100.0);
+            double puissance = 1;
+            for (int m = 0; m <= DUREE_MAX_MOIS; m++) {
+                PUISSANCES[i][m] = puissance;
+                puissance *= base;
+            }
+        }
+    }
+
+    private TableFacteursAnnuite() {
+    }
+
+    /**
+     * Facteur d'annuité: mensualité pour 1 DH emprunté
+     * @param tauxAnnuel Taux annuel en pourcentage
+     * @param dureeMois Nombre de mensualités
+     * @return r / (1 - (1 + r)^-n), ou 1/n si le taux est nul
+     */
+    public static double facteur(double tauxAnnuel, int dureeMois) {
+        if (dureeMois <= 0) {
+            throw new IllegalArgumentException("La durée doit être positive: " + dureeMois);
+        }
+        double r = tauxMensuel(tauxAnnuel);
+        if (r == 0) {
+            return 1.0 / dureeMois;
+        }
+        double puissance = puissance(tauxAnnuel, dureeMois);
+        return r * puissance / (puissance - 1);
+    }
+
+    public static double mensualite(double montant, double tauxAnnuel, int dureeMois) {
+        return montant * facteur(tauxAnnuel, dureeMois);
+    }
+
+    /**
+     * Capital restant dû après k mensualités: P * ((1+r)^n - (1+r)^k) / ((1+r)^n - 1)
+     */
+    public static double capitalRestantApres(double montant, double tauxAnnuel, int dureeMois, int k) {
+        if (k <= 0) {
+            return montant;
+        }
+        if (k >= dureeMois) {
+            return 0;
+        }
+        if (tauxMensuel(tauxAnnuel) == 0) {
+            return montant * (dureeMois - k) / dureeMois;
+        }
+        double puissanceN = puissance(tauxAnnuel, dureeMois);
+        double puissanceK = puissance(tauxAnnuel, k);
+        return montant * (puissanceN - puissanceK) / (puissanceN - 1);
+    }
+
+    // (1 + r)^m, lu dans la table si (taux, durée) est sur la grille
+    static double puissance(double tauxAnnuel, int mois) {
+        long bps = Math.round(tauxAnnuel * 100);
+        if (bps >= 0 && bps <= TAUX_MAX_BPS && bps % PAS_BPS == 0 && mois <= DUREE_MAX_MOIS
+                && Math.abs(tauxAnnuel * 100 - bps) < 1e-6) {
+            return PUISSANCES[(int) (bps / PAS_BPS)][mois];
+        }
+        return Math.pow(1 + tauxMensuel(tauxAnnuel), mois);
+    }
+
+    private static double tauxMensuel(double tauxAnnuel) {
+        return tauxAnnuel / 12 / 100;
+    }
+}
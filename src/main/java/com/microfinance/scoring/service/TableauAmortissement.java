@@ -0,0 +1,152 @@
+package com.microfinance.scoring.service;
+
+import com.microfinance.scoring.model.Echeance;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tableau d'amortissement à mensualités constantes
+ * Le plan est calculé dans des tableaux primitifs (mensualité, capital, intérêts, capital restant),
+ * arrondis au centime ligne par ligne, la dernière échéance soldant l'écart d'arrondi.
+ * Les objets Echeance ne sont construits qu'à la demande (persistance, affichage).
+ */
+public final class TableauAmortissement {
+
+    private final double capitalInitial;
+    private final double tauxMensuel;
+    private final int duree;
+    private final LocalDate dateDebut;
+
+    private final double[] mensualites;
+    private final double[] capital;
+    private final double[] interets;
+    private final double[] capitalRestant;
+
+    private TableauAmortissement(double capitalInitial, double tauxMensuel, int duree, LocalDate dateDebut) {
+        this.capitalInitial = capitalInitial;
+        this.tauxMensuel = tauxMensuel;
+        this.duree = duree;
+        this.dateDebut = dateDebut;
+        this.mensualites = new double[duree];
+        this.capital = new double[duree];
+        this.interets = new double[duree];
+        this.capitalRestant = new double[duree];
+    }
+
+    /**
+     * Calculer le plan complet
+     * @param montant Capital emprunté
+     * @param tauxAnnuel Taux annuel en pourcentage (ex: 6.5)
+     * @param dureeMois Nombre de mensualités
+     * @param dateDebut Date du crédit; la i-ème échéance tombe i mois plus tard
+     * @return Tableau d'amortissement
+     */
+    public static TableauAmortissement calculer(double montant, double tauxAnnuel, int dureeMois, LocalDate dateDebut) {
+        if (dureeMois <= 0) {
+            throw new IllegalArgumentException("La durée doit être positive: " + dureeMois);
+        }
+        double tauxMensuel = tauxAnnuel / 12 / 100;
+        TableauAmortissement tableau = new TableauAmortissement(montant, tauxMensuel, dureeMois, dateDebut);
+
+        double mensualite = arrondir(mensualite(montant, tauxAnnuel, dureeMois));
+        double restant = montant;
+        for (int i = 0; i < dureeMois; i++) {
+            double interet = arrondir(restant * tauxMensuel);
+            double partCapital = (i == dureeMois - 1) ? restant : Math.min(restant, mensualite - interet);
+            restant = arrondir(restant - partCapital);
+
+            tableau.interets[i] = interet;
+            tableau.capital[i] = arrondir(partCapital);
+            tableau.mensualites[i] = arrondir(partCapital + interet);
+            tableau.capitalRestant[i] = restant;
+        }
+        return tableau;
+    }
+
+    /**
+     * Mensualité constante (formule des annuités); taux nul: remboursement linéaire
+     * @param montant Capital emprunté
+     * @param tauxAnnuel Taux annuel en pourcentage
+     * @param dureeMois Nombre de mensualités
+     * @return Mensualité non arrondie
+     */
+    public static double mensualite(double montant, double tauxAnnuel, int dureeMois) {
+        return TableFacteursAnnuite.mensualite(montant, tauxAnnuel, dureeMois);
+    }
+
+    /**
+     * Capital restant dû après k mensualités, en temps constant (sans dérouler le plan)
+     * @param montant Capital emprunté
+     * @param tauxAnnuel Taux annuel en pourcentage
+     * @param dureeMois Nombre total de mensualités
+     * @param k Nombre de mensualités payées (0..dureeMois)
+     * @return Capital restant dû (non arrondi)
+     */
+    public static double capitalRestantApres(double montant, double tauxAnnuel, int dureeMois, int k) {
+        return TableFacteursAnnuite.capitalRestantApres(montant, tauxAnnuel, dureeMois, k);
+    }
+
+    /**
+     * Construire les échéances du plan, à la demande
+     * @param creditId Crédit auquel rattacher les échéances
+     * @return Échéances en attente de paiement
+     */
+    public List<Echeance> versEcheances(UUID creditId) {
+        List<Echeance> echeances = new ArrayList<>(duree);
+        for (int i = 0; i < duree; i++) {
+            Echeance echeance = new Echeance(
+                java.sql.Date.valueOf(getDateEcheance(i)),
+                mensualites[i],
+                null, // Pas encore payée
+                "EN_ATTENTE", // Statut initial
+                null
+            );
+            echeance.setNumero(i + 1);
+            echeance.setMontantCapital(capital[i]);
+            echeance.setMontantInteret(interets[i]);
+            echeance.setCreditId(creditId);
+            echeances.add(echeance);
+        }
+        return echeances;
+    }
+
+    /**
+     * Date de la i-ème échéance (base 0), toujours calculée depuis la date de début
+     * pour éviter la dérive des fins de mois (31 janvier → 28 février → 31 mars)
+     */
+    public LocalDate getDateEcheance(int i) {
+        return dateDebut.plusMonths(i + 1L);
+    }
+
+    /**
+     * Identifiant déterministe de la i-ème échéance (base 1) d'un crédit, pour les échéanciers virtuels
+     */
+    public static UUID identifiantEcheance(UUID creditId, int numero) {
+        return UUID.nameUUIDFromBytes((creditId + "#" + numero).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public double getTotalInterets() {
+        double total = 0;
+        for (double interet : interets) {
+            total += interet;
+        }
+        return arrondir(total);
+    }
+
+    private static double arrondir(double montant) {
+        return Math.round(montant * 100) / 100.0;
+    }
+
+    // Getters (index base 0)
+    public int getDuree() { return duree; }
+    public double getCapitalInitial() { return capitalInitial; }
+    public double getTauxMensuel() { return tauxMensuel; }
+    public LocalDate getDateDebut() { return dateDebut; }
+    public double getMensualite(int i) { return mensualites[i]; }
+    public double getCapital(int i) { return capital[i]; }
+    public double getInteret(int i) { return interets[i]; }
+    public double getCapitalRestant(int i) { return capitalRestant[i]; }
+}
@@ -0,0 +1,52 @@
+package com.microfinance.scoring.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Temps cumulés des étapes du traitement d'une demande de crédit
+ */
+public class TempsEtapes {
+
+    public enum Etape {
+        RECHERCHE_CLIENT,
+        HISTORIQUE_CREDITS,
+        EVALUATION,
+        PERSISTANCE,
+        TOTAL
+    }
+
+    private final LongAdder[] nombres = new LongAdder[Etape.values().length];
+    private final LongAdder[] totauxNanos = new LongAdder[Etape.values().length];
+    private final AtomicLongArray maxNanos = new AtomicLongArray(Etape.values().length);
+
+    public TempsEtapes() {
+        for (int i = 0; i < nombres.length; i++) {
+            nombres[i] = new LongAdder();
+            totauxNanos[i] = new LongAdder();
+        }
+    }
+
+    void enregistrer(Etape etape, long dureeNanos) {
+        int i = etape.ordinal();
+        nombres[i].increment();
+        totauxNanos[i].add(dureeNanos);
+        long max;
+        while (dureeNanos > (max = maxNanos.get(i)) && !maxNanos.compareAndSet(i, max, dureeNanos)) {
+            // réessayer
+        }
+    }
+
+    public long getNombre(Etape etape) {
+        return nombres[etape.ordinal()].sum();
+    }
+
+    public double getMoyenneMs(Etape etape) {
+        long nombre = getNombre(etape);
+        return nombre > 0 ? totauxNanos[etape.ordinal()].sum() / 1e6 / nombre : 0;
+    }
+
+    public double getMaxMs(Etape etape) {
+        return maxNanos.get(etape.ordinal()) / 1e6;
+    }
+}